@@ -0,0 +1,21 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Takes the usual JMH command line and always adds the
+ * GC profiler, so every run reports allocation rate (gc.alloc.rate.norm is bytes
+ * allocated per operation) next to the timings.
+ */
+public class BenchmarkRunner
+{
+	public static void main(String[] args) throws Exception
+	{
+		CommandLineOptions cmd = new CommandLineOptions(args);
+
+		new Runner(new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,177 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import input.components.point.ConcurrentPointNodeDatabase;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+
+/**
+ * Insert throughput of ConcurrentPointNodeDatabase from 1 to 32 threads, against a
+ * PointNodeDatabase behind one lock. Each operation adds a new point and removes the
+ * one its thread added WINDOW operations earlier, so the database stays the same size
+ * however long the run; the points of each thread lie in a band of their own.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentInsertBenchmark
+{
+	private static final int WINDOW = 1024;
+
+	@State(Scope.Benchmark)
+	public static class Databases
+	{
+		public ConcurrentPointNodeDatabase concurrent;
+		public PointNodeDatabase locked;
+
+		private int _threads;
+
+		@Setup(Level.Iteration)
+		public void setup()
+		{
+			concurrent = new ConcurrentPointNodeDatabase();
+			locked = new PointNodeDatabase();
+			_threads = 0;
+		}
+
+		private synchronized int nextThread()
+		{
+			return _threads++;
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Writer
+	{
+		private final PointNode[] _window = new PointNode[WINDOW];
+		private double _y;
+		private long _count;
+
+		@Setup(Level.Iteration)
+		public void setup(Databases dbs)
+		{
+			_y = dbs.nextThread() * 1000.0;
+			_count = 0;
+		}
+
+		private PointNode next()
+		{
+			_count++;
+			return new PointNode((_count % 1_000_000) * 0.01, _y + (_count / 1_000_000));
+		}
+
+		private PointNode retire(PointNode added)
+		{
+			int slot = (int) (_count % WINDOW);
+			PointNode old = _window[slot];
+			_window[slot] = added;
+			return old;
+		}
+	}
+
+	private static Object churn(ConcurrentPointNodeDatabase db, Writer writer)
+	{
+		PointNode p = writer.next();
+		PointNode added = db.putIfAbsent(p.getX(), p.getY(), null);
+		PointNode old = writer.retire(added);
+		if (old != null) db.remove(old);
+		return added;
+	}
+
+	private static Object churnLocked(PointNodeDatabase db, Writer writer)
+	{
+		PointNode p = writer.next();
+		synchronized (db)
+		{
+			db.put(p);
+		}
+		PointNode old = writer.retire(p);
+		if (old != null)
+		{
+			synchronized (db)
+			{
+				db.remove(old);
+			}
+		}
+		return p;
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Object concurrent01(Databases dbs, Writer writer)
+	{
+		return churn(dbs.concurrent, writer);
+	}
+
+	@Benchmark
+	@Threads(2)
+	public Object concurrent02(Databases dbs, Writer writer)
+	{
+		return churn(dbs.concurrent, writer);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Object concurrent04(Databases dbs, Writer writer)
+	{
+		return churn(dbs.concurrent, writer);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public Object concurrent08(Databases dbs, Writer writer)
+	{
+		return churn(dbs.concurrent, writer);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public Object concurrent16(Databases dbs, Writer writer)
+	{
+		return churn(dbs.concurrent, writer);
+	}
+
+	@Benchmark
+	@Threads(32)
+	public Object concurrent32(Databases dbs, Writer writer)
+	{
+		return churn(dbs.concurrent, writer);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Object locked01(Databases dbs, Writer writer)
+	{
+		return churnLocked(dbs.locked, writer);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public Object locked08(Databases dbs, Writer writer)
+	{
+		return churnLocked(dbs.locked, writer);
+	}
+
+	@Benchmark
+	@Threads(32)
+	public Object locked32(Databases dbs, Writer writer)
+	{
+		return churnLocked(dbs.locked, writer);
+	}
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNodeDatabase;
+
+/**
+ * Lookups on PointNodeDatabase and SegmentNodeDatabase. Each point lookup benchmark
+ * looks up every point of the figure once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseBenchmark
+{
+	private PointNode[] _points;
+	private PointNodeDatabase _pdb;
+	private SegmentNodeDatabase _sdb;
+
+	@Setup
+	public void setup(FigureState state)
+	{
+		_pdb = state.node.getPointsDatabase();
+		_sdb = state.node.getSegments();
+		_points = _pdb.getPoints().toArray(new PointNode[0]);
+	}
+
+	@Benchmark
+	public void getPointByCoordinates(Blackhole bh)
+	{
+		for (PointNode p : _points) bh.consume(_pdb.getPoint(p.getX(), p.getY()));
+	}
+
+	@Benchmark
+	public void getPointByName(Blackhole bh)
+	{
+		for (PointNode p : _points) bh.consume(_pdb.getPoint(p.getName()));
+	}
+
+	@Benchmark
+	public int numUndirectedEdges()
+	{
+		return _sdb.numUndirectedEdges();
+	}
+
+	@Benchmark
+	public int uniqueAdjacencyLists()
+	{
+		int count = 0;
+		for (Entry<PointNode, Iterable<PointNode>> entry : _sdb.uniqueAdjacencyLists())
+		{
+			for (PointNode b : entry.getValue()) count++;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,42 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import input.builder.GeometryBuilder;
+import input.components.FigureNode;
+import input.parser.JSONParser;
+import input.visitor.BinaryWriterVisitor;
+
+/**
+ * One parsed figure per benchmark trial, over the sample files and synthetic grids
+ * from 10^3 to 10^6 points.
+ */
+@State(Scope.Benchmark)
+public class FigureState
+{
+	@Param({ "pizza.json", "fully_connected_irregular_polygon.json", "tri_snake.json",
+		     "grid:1000", "grid:10000", "grid:100000", "grid:1000000" })
+	public String figure;
+
+	public String text;
+	public FigureNode node;
+	// the figure in the binary format, in direct memory as a mapped file would be
+	public ByteBuffer binary;
+
+	@Setup
+	public void setup()
+	{
+		text = Figures.load(figure);
+		node = (FigureNode) new JSONParser(new GeometryBuilder()).parse(text);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		node.accept(new BinaryWriterVisitor(out), null);
+		binary = ByteBuffer.allocateDirect(out.size()).put(out.toByteArray()).flip();
+	}
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import utilities.io.FileUtilities;
+
+/**
+ * Figure text for the benchmarks: either one of the sample files shipped in the
+ * project root (run the benchmarks from there), or a synthetic figure named
+ * "grid:N", a square grid of N points where each point is joined to its right and
+ * upper neighbor.
+ */
+public class Figures
+{
+	public static final String GRID_PREFIX = "grid:";
+
+	/**
+	 * @param figure -- a sample file name or "grid:N"
+	 * @return the JSON text of the figure, comments removed
+	 */
+	public static String load(String figure)
+	{
+		if (figure.startsWith(GRID_PREFIX))
+		{
+			return grid(Integer.parseInt(figure.substring(GRID_PREFIX.length())));
+		}
+
+		String text = FileUtilities.readFileFilterComments(figure);
+		if (text.isEmpty()) throw new IllegalArgumentException("Could not read " + figure + "; run from the project root");
+
+		return text;
+	}
+
+	/**
+	 * @param n -- number of points; rounded up to a full square
+	 * @return the JSON text of a grid figure with about n points and 2n segments
+	 */
+	public static String grid(int n)
+	{
+		int side = (int) Math.ceil(Math.sqrt(n));
+		StringBuilder sb = new StringBuilder(n * 96);
+
+		sb.append("{ \"Figure\": {\n");
+		sb.append("\"Description\": \"A ").append(side).append(" by ").append(side).append(" grid\",\n");
+
+		sb.append("\"Points\": [\n");
+		for (int i = 0; i < side * side; i++)
+		{
+			if (i > 0) sb.append(",\n");
+			sb.append("{ \"name\": \"P").append(i).append("\", \"x\": ").append(i % side)
+			  .append(", \"y\": ").append(i / side).append(" }");
+		}
+		sb.append("\n],\n");
+
+		sb.append("\"Segments\": [\n");
+		boolean first = true;
+		for (int i = 0; i < side * side; i++)
+		{
+			boolean right = i % side < side - 1;
+			boolean up = i / side < side - 1;
+			if (!right && !up) continue;
+
+			if (!first) sb.append(",\n");
+			first = false;
+
+			sb.append("{ \"P").append(i).append("\": [");
+			if (right) sb.append("\"P").append(i + 1).append('"');
+			if (right && up) sb.append(", ");
+			if (up) sb.append("\"P").append(i + side).append('"');
+			sb.append("] }");
+		}
+		sb.append("\n]\n} }\n");
+
+		return sb.toString();
+	}
+}
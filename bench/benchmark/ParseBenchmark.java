@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import input.builder.GeometryBuilder;
+import input.components.ComponentNode;
+import input.parser.BinaryParser;
+import input.parser.JSONParser;
+
+/**
+ * JSONParser.parse through the org.json tree and through the streaming reader, and
+ * BinaryParser on the same figure in the binary format.
+ * <p>
+ * Interning is measured cold, with a new intern table for every parse, and warm, with
+ * a table that already holds the figure's points. The warm table is made afresh for
+ * each iteration, so it does not carry over between iterations or forks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark
+{
+	private static final JSONParser PARSER = new JSONParser(new GeometryBuilder());
+
+	@Benchmark
+	public ComponentNode parseString(FigureState state)
+	{
+		return PARSER.parse(state.text);
+	}
+
+	@Benchmark
+	public ComponentNode parseReader(FigureState state)
+	{
+		return PARSER.parse(new StringReader(state.text));
+	}
+
+	@State(Scope.Thread)
+	public static class WarmInterning
+	{
+		public JSONParser parser;
+
+		@Setup(Level.Iteration)
+		public void setup(FigureState state)
+		{
+			parser = new JSONParser(GeometryBuilder.interning());
+			parser.parse(state.text);
+		}
+	}
+
+	@Benchmark
+	public ComponentNode parseInternedCold(FigureState state)
+	{
+		return new JSONParser(GeometryBuilder.interning()).parse(state.text);
+	}
+
+	@Benchmark
+	public ComponentNode parseInternedWarm(FigureState state, WarmInterning interning)
+	{
+		return interning.parser.parse(state.text);
+	}
+
+	@Benchmark
+	public ComponentNode parseBinary(FigureState state)
+	{
+		return new BinaryParser(new GeometryBuilder()).parse(state.binary.duplicate());
+	}
+}
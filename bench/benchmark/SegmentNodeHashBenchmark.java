@@ -0,0 +1,63 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import input.components.segment.SegmentNode;
+
+/**
+ * Deduplicating every directed segment of a figure through a HashSet, which is what
+ * SegmentNode.hashCode is for. At setup the bucket distribution of the segment hashes
+ * is printed for a table sized as HashSet would size it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SegmentNodeHashBenchmark
+{
+	private List<SegmentNode> _segments;
+
+	@Setup
+	public void setup(FigureState state)
+	{
+		_segments = state.node.getSegments().asSegmentList();
+
+		int buckets = Integer.highestOneBit(Math.max(1, (int) (_segments.size() / 0.75f)) * 2 - 1);
+		int[] counts = new int[buckets];
+		Set<Integer> distinct = new HashSet<>();
+		for (SegmentNode s : _segments)
+		{
+			int h = s.hashCode();
+			distinct.add(h);
+			counts[(h ^ (h >>> 16)) & (buckets - 1)]++;
+		}
+		int used = (int) Arrays.stream(counts).filter(c -> c > 0).count();
+		int longest = Arrays.stream(counts).max().orElse(0);
+
+		System.out.printf("%n%s: %d segments, %d distinct hashes, %d of %d buckets used, longest chain %d%n",
+				state.figure, _segments.size(), distinct.size(), used, buckets, longest);
+	}
+
+	@Benchmark
+	public int dedupe()
+	{
+		return new HashSet<>(_segments).size();
+	}
+}
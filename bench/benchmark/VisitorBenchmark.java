@@ -0,0 +1,65 @@
+package benchmark;
+
+import java.io.Writer;
+import java.util.AbstractMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import input.builder.GeometryBuilder;
+import input.parser.JSONParser;
+import input.visitor.JSONWriterVisitor;
+import input.visitor.ToJSONvisitor;
+import input.visitor.UnparseContext;
+import input.visitor.UnparseVisitor;
+
+/**
+ * Serializing a parsed figure with UnparseVisitor, ToJSONvisitor and JSONWriterVisitor, and the full
+ * text -> figure -> JSON text round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VisitorBenchmark
+{
+	@Benchmark
+	public Object unparse(FigureState state)
+	{
+		StringBuilder sb = new StringBuilder();
+		return state.node.accept(new UnparseVisitor(), new AbstractMap.SimpleEntry<>(sb, 0));
+	}
+
+	@Benchmark
+	public Object unparseContext(FigureState state)
+	{
+		return state.node.accept(new UnparseVisitor(), new UnparseContext(new StringBuilder()));
+	}
+
+	@Benchmark
+	public Object toJSON(FigureState state)
+	{
+		return state.node.accept(new ToJSONvisitor(), null);
+	}
+
+	@Benchmark
+	public Object writeJSON(FigureState state)
+	{
+		return state.node.accept(new JSONWriterVisitor(Writer.nullWriter(), false), null);
+	}
+
+	@Benchmark
+	public String roundTrip(FigureState state)
+	{
+		Object json = new JSONParser(new GeometryBuilder()).parse(state.text)
+		                  .accept(new ToJSONvisitor(), null);
+		return json.toString();
+	}
+}
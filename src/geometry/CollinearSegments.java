@@ -0,0 +1,223 @@
+package geometry;
+
+import input.components.point.PointNode;
+import input.components.segment.SegmentNode;
+import input.components.segment.SegmentNodeDatabase;
+import utilities.math.MathUtilities;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the maximal collinear segments of a figure. Segments are grouped by the line
+ * they lie on, and the segments of each line are merged where they chain together or
+ * overlap.
+ * <p>
+ * A line is identified by the angle of its direction, in [-pi/2, pi/2), and its signed
+ * distance from the origin. Both are bucketed by MathUtilities.EPSILON and hashed, so
+ * finding the line of a segment inspects a handful of buckets, the same way
+ * PointNodeDatabase looks up coordinates. Sorting the segments along each line makes
+ * the whole pass O(E log E) for E segments.
+ */
+public class CollinearSegments {
+    protected Map<Long, List<Line>> _buckets;
+    protected List<Line> _lines;
+
+    /**
+     * @param segments -- database of the segments to merge
+     * @return the maximal collinear segments; every segment of positive length lies on exactly one
+     */
+    public static List<MaximalSegment> findMaximalSegments(SegmentNodeDatabase segments) {
+        return findMaximalSegments(segments.asUniqueSegmentList());
+    }
+
+    /**
+     * @param segments -- segments to merge; each should be listed once
+     * @return the maximal collinear segments; every segment of positive length lies on exactly one
+     */
+    public static List<MaximalSegment> findMaximalSegments(List<SegmentNode> segments) {
+        CollinearSegments collinear = new CollinearSegments();
+        for (SegmentNode segment : segments) {
+            collinear.add(segment);
+        }
+
+        List<MaximalSegment> maximal = new ArrayList<>();
+        for (Line line : collinear._lines) {
+            line.merge(maximal);
+        }
+        return maximal;
+    }
+
+    private CollinearSegments() {
+        _buckets = new HashMap<>();
+        _lines = new ArrayList<>();
+    }
+
+    private void add(SegmentNode segment) {
+        PointNode a = segment.getPoint1(), b = segment.getPoint2();
+        double dx = b.getX() - a.getX(), dy = b.getY() - a.getY();
+        double length = Math.hypot(dx, dy);
+        if (length < MathUtilities.EPSILON) return;
+
+        // direction with angle in [-pi/2, pi/2)
+        double ux = dx / length, uy = dy / length;
+        if (ux < 0 || (ux == 0 && uy > 0)) {
+            ux = -ux;
+            uy = -uy;
+        }
+        double angle = Math.atan2(uy, ux);
+        double offset = ux * a.getY() - uy * a.getX();
+
+        Line line = find(angle, offset);
+        if (line == null) {
+            line = new Line(ux, uy, angle, offset);
+            _buckets.computeIfAbsent(key(bucket(angle), bucket(offset)), k -> new ArrayList<>(1)).add(line);
+            _lines.add(line);
+        }
+        line.add(segment);
+    }
+
+    /**
+     * @return the line within EPSILON of the given angle and offset, or null if there is none
+     */
+    private Line find(double angle, double offset) {
+        Line line = find(bucket(angle), bucket(offset), angle, offset);
+        if (line != null) return line;
+
+        // a line at angle close to -pi/2 is the same line as at pi/2 with the offset negated
+        if (angle - MathUtilities.EPSILON < -Math.PI / 2) {
+            return find(bucket(angle + Math.PI), bucket(-offset), angle + Math.PI, -offset);
+        }
+        if (angle + MathUtilities.EPSILON > Math.PI / 2) {
+            return find(bucket(angle - Math.PI), bucket(-offset), angle - Math.PI, -offset);
+        }
+        return null;
+    }
+
+    private Line find(long ca, long co, double angle, double offset) {
+        for (long da = -1; da <= 1; da++) {
+            for (long dc = -1; dc <= 1; dc++) {
+                List<Line> bucket = _buckets.get(key(ca + da, co + dc));
+                if (bucket == null) continue;
+
+                for (Line line : bucket) {
+                    if (MathUtilities.doubleEquals(line._angle, angle) && MathUtilities.doubleEquals(line._offset, offset)) {
+                        return line;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long bucket(double value) {
+        return (long) Math.floor(value / MathUtilities.EPSILON);
+    }
+
+    private static long key(long ca, long co) {
+        return ca * 0x9E3779B97F4A7C15L + co;
+    }
+
+    /**
+     * The segments lying on one line, each kept as an interval of positions along the line.
+     */
+    private static class Line {
+        private final double _ux;
+        private final double _uy;
+        private final double _angle;
+        private final double _offset;
+        private final List<Interval> _intervals = new ArrayList<>();
+
+        private Line(double ux, double uy, double angle, double offset) {
+            _ux = ux;
+            _uy = uy;
+            _angle = angle;
+            _offset = offset;
+        }
+
+        private void add(SegmentNode segment) {
+            PointNode a = segment.getPoint1(), b = segment.getPoint2();
+            double ta = position(a), tb = position(b);
+            _intervals.add(ta <= tb ? new Interval(segment, a, ta, b, tb) : new Interval(segment, b, tb, a, ta));
+        }
+
+        private double position(PointNode p) {
+            return _ux * p.getX() + _uy * p.getY();
+        }
+
+        /**
+         * Sweeps the intervals in order of their start, closing a maximal segment at each gap.
+         */
+        private void merge(List<MaximalSegment> maximal) {
+            _intervals.sort(Comparator.comparingDouble(i -> i._start));
+
+            int first = 0;
+            double end = _intervals.get(0)._end;
+            boolean overlapping = false;
+
+            for (int i = 1; i < _intervals.size(); i++) {
+                Interval interval = _intervals.get(i);
+
+                if (interval._start > end + MathUtilities.EPSILON) {
+                    maximal.add(build(first, i, overlapping));
+                    first = i;
+                    end = interval._end;
+                    overlapping = false;
+                    continue;
+                }
+
+                overlapping |= interval._start < end - MathUtilities.EPSILON;
+                end = Math.max(end, interval._end);
+            }
+            maximal.add(build(first, _intervals.size(), overlapping));
+        }
+
+        private MaximalSegment build(int from, int to, boolean overlapping) {
+            List<SegmentNode> segments = new ArrayList<>(to - from);
+            List<Endpoint> endpoints = new ArrayList<>(2 * (to - from));
+            for (Interval interval : _intervals.subList(from, to)) {
+                segments.add(interval._segment);
+                endpoints.add(new Endpoint(interval._from, interval._start));
+                endpoints.add(new Endpoint(interval._to, interval._end));
+            }
+            endpoints.sort(Comparator.comparingDouble(e -> e._position));
+
+            // chained segments share their inner endpoints
+            List<PointNode> points = new ArrayList<>(endpoints.size());
+            for (Endpoint e : endpoints) {
+                if (points.isEmpty() || !points.get(points.size() - 1).equals(e._point)) points.add(e._point);
+            }
+
+            return new MaximalSegment(points, segments, overlapping);
+        }
+    }
+
+    private static class Interval {
+        private final SegmentNode _segment;
+        private final PointNode _from;
+        private final double _start;
+        private final PointNode _to;
+        private final double _end;
+
+        private Interval(SegmentNode segment, PointNode from, double start, PointNode to, double end) {
+            _segment = segment;
+            _from = from;
+            _start = start;
+            _to = to;
+            _end = end;
+        }
+    }
+
+    private static class Endpoint {
+        private final PointNode _point;
+        private final double _position;
+
+        private Endpoint(PointNode point, double position) {
+            _point = point;
+            _position = position;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package geometry;
+
+import input.components.FigureNode;
+import input.components.segment.SegmentNodeDatabase;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The triangles and faces of one figure, computed on first request and kept until the
+ * figure's segments change.
+ */
+public class FigurePolygons {
+    protected FigureNode _figure;
+
+    // cached polygons and the segment modification count they were computed at
+    protected List<Polygon> _triangles;
+    protected int _trianglesModCount;
+    protected List<Polygon> _faces;
+    protected int _facesModCount;
+
+    public FigurePolygons(FigureNode figure) {
+        _figure = figure;
+    }
+
+    public FigureNode getFigure() {
+        return _figure;
+    }
+
+    /**
+     * @return every non-degenerate triangle whose sides are segments of the figure
+     */
+    public synchronized List<Polygon> getTriangles() {
+        SegmentNodeDatabase segments = _figure.getSegments();
+        if (_triangles == null || _trianglesModCount != segments.modificationCount()) {
+            _trianglesModCount = segments.modificationCount();
+            _triangles = Collections.unmodifiableList(PolygonFinder.findTriangles(segments));
+        }
+        return _triangles;
+    }
+
+    /**
+     * @return the bounded faces the segments divide the plane into
+     */
+    public synchronized List<Polygon> getFaces() {
+        SegmentNodeDatabase segments = _figure.getSegments();
+        if (_faces == null || _facesModCount != segments.modificationCount()) {
+            _facesModCount = segments.modificationCount();
+            _faces = Collections.unmodifiableList(PolygonFinder.findFaces(segments));
+        }
+        return _faces;
+    }
+}
@@ -0,0 +1,133 @@
+package geometry;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNode;
+import input.components.segment.SegmentNodeDatabase;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Normalizes a figure so that segments only meet at points of the figure: a point is
+ * added wherever two segments cross or an endpoint of one lies inside another, and every
+ * segment through such a point is split there.
+ * <p>
+ * Intersections come from SegmentIntersector; a new point that lands on a point already
+ * in the figure reuses it through the grid behind PointNodeDatabase.getPoint(x, y), so
+ * the whole pass takes O((n + k) log n) time for n segments and k intersections.
+ */
+public class ImplicitPointGenerator {
+    protected FigureNode _figure;
+    protected String _prefix;
+    protected int _nextName;
+    protected List<PointNode> _implicitPoints;
+
+    /**
+     * Adds the implicit points of a figure as unnamed points and splits its segments.
+     *
+     * @param figure -- figure to normalize in place
+     * @return the points that were added, ordered by position
+     */
+    public static List<PointNode> addImplicitPoints(FigureNode figure) {
+        return addImplicitPoints(figure, null);
+    }
+
+    /**
+     * Adds the implicit points of a figure and splits its segments. Points are named
+     * prefix + 1, prefix + 2, ... skipping names the figure already uses.
+     *
+     * @param figure -- figure to normalize in place
+     * @param prefix -- prefix of the generated names; null leaves the points unnamed
+     * @return the points that were added, ordered by position
+     */
+    public static List<PointNode> addImplicitPoints(FigureNode figure, String prefix) {
+        return new ImplicitPointGenerator(figure, prefix).generate();
+    }
+
+    private ImplicitPointGenerator(FigureNode figure, String prefix) {
+        _figure = figure;
+        _prefix = prefix;
+        _nextName = 1;
+        _implicitPoints = new ArrayList<>();
+    }
+
+    private List<PointNode> generate() {
+        // the points at which each segment has to be split
+        Map<SegmentNode, List<PointNode>> splits = new LinkedHashMap<>();
+
+        for (Intersection intersection : SegmentIntersector.findIntersections(_figure)) {
+            PointNode point = resolve(intersection.getPoint());
+            addSplit(splits, intersection.getSegment1(), point);
+            addSplit(splits, intersection.getSegment2(), point);
+        }
+
+        SegmentNodeDatabase segments = _figure.getSegments();
+        for (Map.Entry<SegmentNode, List<PointNode>> entry : splits.entrySet()) {
+            split(segments, entry.getKey(), entry.getValue());
+        }
+
+        return _implicitPoints;
+    }
+
+    /**
+     * @return the point of the figure at the given intersection point, added if there is none
+     */
+    private PointNode resolve(PointNode point) {
+        PointNodeDatabase points = _figure.getPointsDatabase();
+
+        PointNode existing = points.getPoint(point.getX(), point.getY());
+        if (existing != null) return existing;
+
+        PointNode implicit = _prefix == null ? new PointNode(point.getX(), point.getY())
+                                             : new PointNode(nextName(points), point.getX(), point.getY());
+        points.put(implicit);
+        _implicitPoints.add(implicit);
+        return implicit;
+    }
+
+    private String nextName(PointNodeDatabase points) {
+        String name;
+        do {
+            name = _prefix + _nextName++;
+        } while (points.getPoint(name) != null);
+        return name;
+    }
+
+    private static void addSplit(Map<SegmentNode, List<PointNode>> splits, SegmentNode segment, PointNode point) {
+        // a T-junction does not split the segment the junction point ends
+        if (point.equals(segment.getPoint1()) || point.equals(segment.getPoint2())) return;
+
+        splits.computeIfAbsent(segment, k -> new ArrayList<>()).add(point);
+    }
+
+    /**
+     * Replaces a segment by the chain of segments through its split points.
+     */
+    private static void split(SegmentNodeDatabase segments, SegmentNode segment, List<PointNode> points) {
+        PointNode start = segment.getPoint1();
+        points.sort(Comparator.comparingDouble(p -> distanceSquared(start, p)));
+
+        segments.removeUndirectedEdge(start, segment.getPoint2());
+
+        PointNode previous = start;
+        for (PointNode point : points) {
+            // several segments crossing at one point report it once per pair
+            if (point == previous) continue;
+
+            segments.addUndirectedEdge(previous, point);
+            previous = point;
+        }
+        segments.addUndirectedEdge(previous, segment.getPoint2());
+    }
+
+    private static double distanceSquared(PointNode a, PointNode b) {
+        double dx = b.getX() - a.getX();
+        double dy = b.getY() - a.getY();
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,45 @@
+package geometry;
+
+import input.components.point.PointNode;
+import input.components.segment.SegmentNode;
+
+/**
+ * A point where two segments of a figure meet without sharing an endpoint: either they
+ * cross, or an endpoint of one lies inside the other.
+ */
+public class Intersection {
+    protected SegmentNode _segment1;
+    protected SegmentNode _segment2;
+    protected PointNode _point;
+
+    /**
+     * @param segment1 -- one of the segments
+     * @param segment2 -- the other segment
+     * @param point    -- where they meet; an unnamed point unless it is an endpoint of one of them
+     */
+    public Intersection(SegmentNode segment1, SegmentNode segment2, PointNode point) {
+        _segment1 = segment1;
+        _segment2 = segment2;
+        _point = point;
+    }
+
+    public SegmentNode getSegment1() {
+        return _segment1;
+    }
+
+    public SegmentNode getSegment2() {
+        return _segment2;
+    }
+
+    public PointNode getPoint() {
+        return _point;
+    }
+
+    /**
+     * Turns this intersection into a string and returns it.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s x %s at %s", _segment1, _segment2, _point);
+    }
+}
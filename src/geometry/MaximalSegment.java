@@ -0,0 +1,72 @@
+package geometry;
+
+import input.components.point.PointNode;
+import input.components.segment.SegmentNode;
+
+import java.util.List;
+
+/**
+ * The longest segment made of segments of a figure that lie on one line and chain
+ * together or overlap: A-B, B-C and C-D make the maximal segment A-D.
+ */
+public class MaximalSegment {
+    protected List<PointNode> _points;
+    protected List<SegmentNode> _segments;
+    protected boolean _overlapping;
+
+    /**
+     * @param points      -- endpoints of the segments, in order along the line
+     * @param segments    -- segments of the figure that make up this one
+     * @param overlapping -- whether any two of the segments overlap rather than just meet
+     */
+    public MaximalSegment(List<PointNode> points, List<SegmentNode> segments, boolean overlapping) {
+        _points = points;
+        _segments = segments;
+        _overlapping = overlapping;
+    }
+
+    public PointNode getStart() {
+        return _points.get(0);
+    }
+
+    public PointNode getEnd() {
+        return _points.get(_points.size() - 1);
+    }
+
+    /**
+     * @return every endpoint of the segments, in order from start to end
+     */
+    public List<PointNode> getPoints() {
+        return _points;
+    }
+
+    public List<SegmentNode> getSegments() {
+        return _segments;
+    }
+
+    /**
+     * @return true if more than one segment of the figure lies on this one
+     */
+    public boolean isMerged() {
+        return _segments.size() > 1;
+    }
+
+    public boolean isOverlapping() {
+        return _overlapping;
+    }
+
+    /**
+     * @return the segment from start to end
+     */
+    public SegmentNode asSegmentNode() {
+        return new SegmentNode(getStart(), getEnd());
+    }
+
+    /**
+     * Turns this maximal segment into a string and returns it.
+     */
+    @Override
+    public String toString() {
+        return _points.toString();
+    }
+}
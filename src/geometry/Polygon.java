@@ -0,0 +1,63 @@
+package geometry;
+
+import input.components.point.PointNode;
+
+import java.util.List;
+
+/**
+ * A closed cycle of points of a figure, each consecutive pair and the last and first
+ * joined by a segment. Vertices are listed counterclockwise.
+ */
+public class Polygon {
+    protected List<PointNode> _points;
+    protected double _area;
+
+    /**
+     * @param points -- vertices in counterclockwise order
+     * @param area   -- the enclosed area
+     */
+    protected Polygon(List<PointNode> points, double area) {
+        _points = points;
+        _area = area;
+    }
+
+    /**
+     * The area is summed from the first vertex, so its rounding error depends on the size
+     * of the cycle rather than on how far the cycle is from the origin.
+     *
+     * @param points -- vertices of a closed cycle
+     * @return twice the signed area of the cycle: positive when it runs counterclockwise
+     */
+    public static double doubleSignedArea(List<PointNode> points) {
+        PointNode origin = points.get(0);
+        double sum = 0;
+        PointNode previous = points.get(points.size() - 1);
+        for (PointNode p : points) {
+            double px = previous.getX() - origin.getX(), py = previous.getY() - origin.getY();
+            double x = p.getX() - origin.getX(), y = p.getY() - origin.getY();
+            sum += px * y - x * py;
+            previous = p;
+        }
+        return sum;
+    }
+
+    public List<PointNode> getPoints() {
+        return _points;
+    }
+
+    public int numSides() {
+        return _points.size();
+    }
+
+    public double getArea() {
+        return _area;
+    }
+
+    /**
+     * Turns this polygon into a string and returns it.
+     */
+    @Override
+    public String toString() {
+        return _points.toString();
+    }
+}
@@ -0,0 +1,228 @@
+package geometry;
+
+import input.components.point.PointNode;
+import input.components.segment.SegmentNodeDatabase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Finds the polygons a figure's segments form: every triangle, and the faces the
+ * segments divide the plane into.
+ * <p>
+ * Triangles are enumerated with the compact-forward algorithm: points are numbered by
+ * decreasing degree and each triangle is found once, from its edge between the two
+ * higher-numbered points, by merging their sorted neighbor lists. That takes
+ * O(E^1.5) time even on dense figures where trying every triple of points does not
+ * finish.
+ * <p>
+ * Faces are traced by walking each side of each segment and turning as far left as
+ * possible at every point. This assumes the segments only meet at their endpoints; run
+ * ImplicitPointGenerator first on figures with crossings.
+ */
+public class PolygonFinder {
+    // doubled areas up to this fraction of the polygon's squared extent count as zero
+    private static final double AREA_TOLERANCE = 1e-12;
+
+    // adjacency in compressed sparse row form: the neighbors of point i are
+    // _targets[_offsets[i]] .. _targets[_offsets[i + 1] - 1]
+    protected PointNode[] _points;
+    protected int[] _offsets;
+    protected int[] _targets;
+
+    /**
+     * @param segments -- database of the segments
+     * @return every triangle whose three sides are segments, excluding degenerate ones
+     */
+    public static List<Polygon> findTriangles(SegmentNodeDatabase segments) {
+        return new PolygonFinder(segments).triangles();
+    }
+
+    /**
+     * @param segments -- database of the segments, meeting only at endpoints
+     * @return the bounded faces of the figure, smallest cycles around each region
+     */
+    public static List<Polygon> findFaces(SegmentNodeDatabase segments) {
+        return new PolygonFinder(segments).faces();
+    }
+
+    /**
+     * Numbers the points by decreasing degree and sorts each neighbor list by number.
+     * Self-loops are dropped; they bound nothing. A segment listed in only one direction,
+     * as a hand-built or concurrently changing database may hold, is taken in both.
+     */
+    private PolygonFinder(SegmentNodeDatabase segments) {
+        Map<PointNode, Integer> found = new HashMap<>();
+        List<PointNode> points = new ArrayList<>();
+        List<Set<Integer>> adjacency = new ArrayList<>();
+        for (Entry<PointNode, Set<PointNode>> entry : segments.entrySet()) {
+            int i = number(entry.getKey(), found, points, adjacency);
+            for (PointNode p : entry.getValue()) {
+                int j = number(p, found, points, adjacency);
+                if (j == i) continue;
+
+                adjacency.get(i).add(j);
+                adjacency.get(j).add(i);
+            }
+        }
+
+        int n = points.size();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(adjacency.get(b).size(), adjacency.get(a).size()));
+
+        _points = new PointNode[n];
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            _points[i] = points.get(order[i]);
+            ids[order[i]] = i;
+        }
+
+        _offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            _offsets[i + 1] = _offsets[i] + adjacency.get(order[i]).size();
+        }
+        _targets = new int[_offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int k = _offsets[i];
+            for (int j : adjacency.get(order[i])) _targets[k++] = ids[j];
+            Arrays.sort(_targets, _offsets[i], _offsets[i + 1]);
+        }
+    }
+
+    private static int number(PointNode p, Map<PointNode, Integer> found, List<PointNode> points, List<Set<Integer>> adjacency) {
+        Integer id = found.putIfAbsent(p, points.size());
+        if (id != null) return id;
+
+        points.add(p);
+        adjacency.add(new HashSet<>());
+        return points.size() - 1;
+    }
+
+    private List<Polygon> triangles() {
+        List<Polygon> triangles = new ArrayList<>();
+
+        for (int v = 0; v < _points.length; v++) {
+            for (int e = _offsets[v]; e < _offsets[v + 1]; e++) {
+                int u = _targets[e];
+                if (u <= v) continue;
+
+                // common neighbors w < v of v and u; both lists are sorted
+                int i = _offsets[v], j = _offsets[u];
+                while (i < _offsets[v + 1] && j < _offsets[u + 1] && _targets[i] < v && _targets[j] < v) {
+                    if (_targets[i] < _targets[j]) {
+                        i++;
+                    } else if (_targets[i] > _targets[j]) {
+                        j++;
+                    } else {
+                        addTriangle(triangles, _points[_targets[i]], _points[v], _points[u]);
+                        i++;
+                        j++;
+                    }
+                }
+            }
+        }
+        return triangles;
+    }
+
+    private static void addTriangle(List<Polygon> triangles, PointNode a, PointNode b, PointNode c) {
+        List<PointNode> points = new ArrayList<>(List.of(a, b, c));
+        double area = Polygon.doubleSignedArea(points);
+
+        // three points on a line are connected but enclose nothing
+        if (Math.abs(area) <= areaTolerance(points)) return;
+
+        if (area < 0) Collections.reverse(points);
+        triangles.add(new Polygon(points, Math.abs(area) / 2));
+    }
+
+    private List<Polygon> faces() {
+        int m = _targets.length;
+
+        // half-edges leaving each point, reordered counterclockwise by direction
+        int[] ccw = new int[m];
+        for (int v = 0; v < _points.length; v++) {
+            PointNode p = _points[v];
+            List<Integer> order = new ArrayList<>(_offsets[v + 1] - _offsets[v]);
+            for (int e = _offsets[v]; e < _offsets[v + 1]; e++) order.add(_targets[e]);
+            // neighbors in the same direction go nearest first, then by number
+            order.sort((a, b) -> {
+                int byAngle = Double.compare(angle(p, _points[a]), angle(p, _points[b]));
+                if (byAngle != 0) return byAngle;
+
+                int byDistance = Double.compare(distanceSquared(p, _points[a]), distanceSquared(p, _points[b]));
+                return byDistance != 0 ? byDistance : Integer.compare(a, b);
+            });
+
+            for (int k = 0; k < order.size(); k++) ccw[_offsets[v] + k] = order.get(k);
+        }
+
+        // where each half-edge v -> w is stored, to find the way back along a segment
+        Map<Long, Integer> positions = new HashMap<>(2 * m);
+        for (int v = 0; v < _points.length; v++) {
+            for (int e = _offsets[v]; e < _offsets[v + 1]; e++) positions.put(halfEdge(v, ccw[e]), e);
+        }
+
+        List<Polygon> faces = new ArrayList<>();
+        boolean[] used = new boolean[m];
+        int[] origin = new int[m];
+        for (int v = 0; v < _points.length; v++) {
+            for (int e = _offsets[v]; e < _offsets[v + 1]; e++) origin[e] = v;
+        }
+
+        for (int start = 0; start < m; start++) {
+            if (used[start]) continue;
+
+            List<PointNode> points = new ArrayList<>();
+            int e = start;
+            while (!used[e]) {
+                used[e] = true;
+                int u = origin[e], v = ccw[e];
+                points.add(_points[u]);
+
+                // arriving at v from u, leave by the edge just clockwise of the way back
+                int back = positions.get(halfEdge(v, u));
+                e = back == _offsets[v] ? _offsets[v + 1] - 1 : back - 1;
+            }
+
+            // bounded faces run counterclockwise; outer boundaries and trees do not, but
+            // rounding can leave a tree with a tiny positive area
+            double area = Polygon.doubleSignedArea(points);
+            if (area > areaTolerance(points)) faces.add(new Polygon(points, area / 2));
+        }
+        return faces;
+    }
+
+    /**
+     * Rounding error in a doubled area grows with the size of the polygon, so the
+     * tolerance is relative to its extent rather than a fixed EPSILON.
+     */
+    private static double areaTolerance(List<PointNode> points) {
+        PointNode origin = points.get(0);
+        double extent = 0;
+        for (PointNode p : points) {
+            extent = Math.max(extent, Math.max(Math.abs(p.getX() - origin.getX()), Math.abs(p.getY() - origin.getY())));
+        }
+        return AREA_TOLERANCE * extent * extent;
+    }
+
+    private long halfEdge(int v, int w) {
+        return (long) v * _points.length + w;
+    }
+
+    private static double distanceSquared(PointNode from, PointNode to) {
+        double dx = to.getX() - from.getX(), dy = to.getY() - from.getY();
+        return dx * dx + dy * dy;
+    }
+
+    private static double angle(PointNode from, PointNode to) {
+        return Math.atan2(to.getY() - from.getY(), to.getX() - from.getX());
+    }
+}
@@ -0,0 +1,319 @@
+package geometry;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.segment.SegmentNode;
+import utilities.math.MathUtilities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Finds every place where two segments of a figure meet without sharing an endpoint,
+ * using the Bentley-Ottmann sweep: a vertical line sweeps left to right over the segment
+ * endpoints and the intersections discovered so far, keeping the segments it currently
+ * crosses ordered from bottom to top. Only segments that become neighbors in that order
+ * are tested against each other, so n segments with k intersections take
+ * O((n + k) log n) time rather than testing all pairs.
+ * <p>
+ * Coordinates closer than MathUtilities.EPSILON are treated as equal. Collinear segments
+ * that overlap are not reported; they do not meet in a single point.
+ */
+public class SegmentIntersector {
+    protected List<Sweep> _segments;
+    protected TreeMap<Event, Event> _events;
+    protected TreeSet<Sweep> _status;
+    protected List<Intersection> _intersections;
+
+    // position of the sweep line: the event being handled
+    protected double _sweepX;
+    protected double _sweepY;
+
+    /**
+     * @param figure -- figure whose segments to intersect
+     * @return every intersection between two segments of the figure, ordered by position
+     */
+    public static List<Intersection> findIntersections(FigureNode figure) {
+        return findIntersections(figure.getSegments().asUniqueSegmentList());
+    }
+
+    /**
+     * @param segments -- segments to intersect; each should be listed once
+     * @return every intersection between two of the segments, ordered by position
+     */
+    public static List<Intersection> findIntersections(Collection<SegmentNode> segments) {
+        return new SegmentIntersector(segments).sweep();
+    }
+
+    private SegmentIntersector(Collection<SegmentNode> segments) {
+        _segments = new ArrayList<>(segments.size());
+        _events = new TreeMap<>();
+        _status = new TreeSet<>(this::compare);
+        _intersections = new ArrayList<>();
+
+        for (SegmentNode segment : segments) {
+            Sweep s = new Sweep(segment, _segments.size());
+
+            // a segment of length zero cannot cross anything
+            if (MathUtilities.doubleEquals(s._x1, s._x2) && MathUtilities.doubleEquals(s._y1, s._y2)) continue;
+
+            _segments.add(s);
+            event(s._x1, s._y1)._starting.add(s);
+            event(s._x2, s._y2);
+        }
+    }
+
+    private List<Intersection> sweep() {
+        while (!_events.isEmpty()) {
+            handle(_events.pollFirstEntry().getKey());
+        }
+        return _intersections;
+    }
+
+    /**
+     * Handles one event point p: every segment through p is taken out of the status, the
+     * ones that continue to the right of p are put back in their new order, and the
+     * segments that became neighbors are tested for an intersection further right.
+     */
+    private void handle(Event p) {
+        _sweepX = p._x;
+        _sweepY = p._y;
+
+        Sweep below = Sweep.probe(p._y, -1);
+        Sweep above = Sweep.probe(p._y, 1);
+
+        // segments that end at p or pass through it
+        NavigableSet<Sweep> through = _status.subSet(below, false, above, false);
+        List<Sweep> meeting = new ArrayList<>(through);
+        through.clear();
+
+        List<Sweep> continuing = new ArrayList<>(meeting.size() + p._starting.size());
+        for (Sweep s : meeting) {
+            if (!at(s._x2, s._y2, p)) continuing.add(s);
+        }
+        continuing.addAll(p._starting);
+
+        meeting.addAll(p._starting);
+        report(meeting, p);
+
+        // just right of p, segments through p are ordered by slope
+        _status.addAll(continuing);
+
+        if (continuing.isEmpty()) {
+            check(_status.lower(below), _status.higher(above), p);
+        } else {
+            check(_status.lower(below), _status.higher(below), p);
+            check(_status.lower(above), _status.higher(above), p);
+        }
+    }
+
+    /**
+     * Records every pair of segments meeting at p, except pairs that only share an endpoint
+     * and collinear pairs.
+     */
+    private void report(List<Sweep> meeting, Event p) {
+        for (int i = 0; i < meeting.size(); i++) {
+            for (int j = i + 1; j < meeting.size(); j++) {
+                Sweep a = meeting.get(i);
+                Sweep b = meeting.get(j);
+
+                PointNode endA = endpointAt(a, p);
+                PointNode endB = endpointAt(b, p);
+
+                if (endA != null && endB != null) continue;
+                if (parallel(a, b)) continue;
+
+                PointNode point = endA != null ? endA : endB != null ? endB : new PointNode(p._x, p._y);
+
+                _intersections.add(new Intersection(a._segment, b._segment, point));
+            }
+        }
+    }
+
+    /**
+     * Adds the intersection of two neighboring segments as an event if it lies ahead of the sweep line.
+     */
+    private void check(Sweep a, Sweep b, Event p) {
+        if (a == null || b == null) return;
+
+        double[] point = intersect(a, b);
+        if (point == null) return;
+
+        if (compare(point[0], point[1], p._x, p._y) > 0) event(point[0], point[1]);
+    }
+
+    private Event event(double x, double y) {
+        Event key = new Event(x, y);
+        Event event = _events.get(key);
+
+        if (event == null) {
+            _events.put(key, key);
+            event = key;
+        }
+        return event;
+    }
+
+    /**
+     * Orders the status: by height where the segments cross the sweep line, then by slope
+     * (which orders segments meeting at the sweep line as they are just to its right).
+     */
+    private int compare(Sweep a, Sweep b) {
+        if (a == b) return 0;
+        if (a._probe != 0) return compareProbe(a, b);
+        if (b._probe != 0) return -compareProbe(b, a);
+
+        double ya = yAt(a);
+        double yb = yAt(b);
+        if (!MathUtilities.doubleEquals(ya, yb)) return Double.compare(ya, yb);
+
+        int cmp = Double.compare(a._slope, b._slope);
+        if (cmp != 0) return cmp;
+
+        return Integer.compare(a._id, b._id);
+    }
+
+    /**
+     * A probe sorts just below (or above) every segment crossing the sweep line at its height.
+     */
+    private int compareProbe(Sweep probe, Sweep s) {
+        double ys = yAt(s);
+        if (MathUtilities.doubleEquals(probe._y1, ys)) return probe._probe;
+        return Double.compare(probe._y1, ys);
+    }
+
+    /**
+     * @return the height at which a segment crosses the sweep line; a vertical segment is
+     * taken to cross it at the event being handled, limited to the segment's extent
+     */
+    private double yAt(Sweep s) {
+        if (s._vertical) return Math.max(s._y1, Math.min(s._y2, _sweepY));
+
+        double t = (_sweepX - s._x1) / (s._x2 - s._x1);
+        t = Math.max(0, Math.min(1, t));
+        return s._y1 + t * (s._y2 - s._y1);
+    }
+
+    /**
+     * Orders points from left to right, and bottom to top along a vertical line.
+     */
+    private static int compare(double x1, double y1, double x2, double y2) {
+        if (!MathUtilities.doubleEquals(x1, x2)) return Double.compare(x1, x2);
+        if (!MathUtilities.doubleEquals(y1, y2)) return Double.compare(y1, y2);
+        return 0;
+    }
+
+    private static boolean at(double x, double y, Event p) {
+        return MathUtilities.doubleEquals(x, p._x) && MathUtilities.doubleEquals(y, p._y);
+    }
+
+    private static PointNode endpointAt(Sweep s, Event p) {
+        if (at(s._x1, s._y1, p)) return s._left;
+        if (at(s._x2, s._y2, p)) return s._right;
+        return null;
+    }
+
+    private static boolean parallel(Sweep a, Sweep b) {
+        double rx = a._x2 - a._x1, ry = a._y2 - a._y1;
+        double sx = b._x2 - b._x1, sy = b._y2 - b._y1;
+        double cross = rx * sy - ry * sx;
+
+        return Math.abs(cross) <= 1e-12 * Math.hypot(rx, ry) * Math.hypot(sx, sy);
+    }
+
+    /**
+     * @return the point where two segments meet, within EPSILON, or null if they do not
+     * meet or are parallel
+     */
+    private static double[] intersect(Sweep a, Sweep b) {
+        if (parallel(a, b)) return null;
+
+        double rx = a._x2 - a._x1, ry = a._y2 - a._y1;
+        double sx = b._x2 - b._x1, sy = b._y2 - b._y1;
+        double qx = b._x1 - a._x1, qy = b._y1 - a._y1;
+        double cross = rx * sy - ry * sx;
+
+        double t = (qx * sy - qy * sx) / cross;
+        double u = (qx * ry - qy * rx) / cross;
+
+        double tolT = MathUtilities.EPSILON / Math.hypot(rx, ry);
+        double tolU = MathUtilities.EPSILON / Math.hypot(sx, sy);
+        if (t < -tolT || t > 1 + tolT || u < -tolU || u > 1 + tolU) return null;
+
+        t = Math.max(0, Math.min(1, t));
+        return new double[] { a._x1 + t * rx, a._y1 + t * ry };
+    }
+
+    /**
+     * A segment as the sweep sees it: from its left (lower, if vertical) endpoint to its right one.
+     */
+    private static class Sweep {
+        final SegmentNode _segment;
+        final PointNode _left;
+        final PointNode _right;
+        final double _x1, _y1, _x2, _y2;
+        final double _slope;
+        final boolean _vertical;
+        final int _id;
+
+        // -1 or 1 for the probes used to search the status, 0 for segments
+        final int _probe;
+
+        Sweep(SegmentNode segment, int id) {
+            PointNode a = segment.getPoint1();
+            PointNode b = segment.getPoint2();
+            boolean swap = compare(a.getX(), a.getY(), b.getX(), b.getY()) > 0;
+
+            _segment = segment;
+            _left = swap ? b : a;
+            _right = swap ? a : b;
+            _x1 = _left.getX();
+            _y1 = _left.getY();
+            _x2 = _right.getX();
+            _y2 = _right.getY();
+            _vertical = MathUtilities.doubleEquals(_x1, _x2);
+            _slope = _vertical ? Double.POSITIVE_INFINITY : (_y2 - _y1) / (_x2 - _x1);
+            _id = id;
+            _probe = 0;
+        }
+
+        private Sweep(double y, int probe) {
+            _segment = null;
+            _left = null;
+            _right = null;
+            _x1 = _x2 = 0;
+            _y1 = _y2 = y;
+            _slope = 0;
+            _vertical = false;
+            _id = -1;
+            _probe = probe;
+        }
+
+        static Sweep probe(double y, int side) {
+            return new Sweep(y, side);
+        }
+    }
+
+    /**
+     * A point the sweep line stops at, with the segments whose left endpoint it is.
+     */
+    private static class Event implements Comparable<Event> {
+        final double _x;
+        final double _y;
+        final List<Sweep> _starting;
+
+        Event(double x, double y) {
+            _x = x;
+            _y = y;
+            _starting = new ArrayList<>(1);
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            return compare(_x, _y, other._x, other._y);
+        }
+    }
+}
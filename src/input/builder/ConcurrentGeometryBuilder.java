@@ -0,0 +1,44 @@
+package input.builder;
+
+import input.components.point.ConcurrentPointNodeDatabase;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.ConcurrentSegmentNodeDatabase;
+import input.components.segment.SegmentNodeDatabase;
+
+import java.util.List;
+
+/**
+ * A GeometryBuilder whose databases can be filled from several threads at once, so a
+ * figure can be built by parallel workers sharing one builder.
+ */
+public class ConcurrentGeometryBuilder extends GeometryBuilder {
+    public ConcurrentGeometryBuilder() {
+        super();
+    }
+
+    /**
+     * @param namePolicy   how built PointNodeDatabases treat duplicate point names
+     * @param internPoints whether buildPointNode returns shared instances
+     */
+    public ConcurrentGeometryBuilder(PointNodeDatabase.NamePolicy namePolicy, boolean internPoints) {
+        super(namePolicy, internPoints);
+    }
+
+    /**
+     * @param points
+     * @return a ConcurrentPointNodeDatabase holding the points
+     */
+    @Override
+    public PointNodeDatabase buildPointDatabaseNode(List<PointNode> points) {
+        return new ConcurrentPointNodeDatabase(points, _namePolicy);
+    }
+
+    /**
+     * @return an empty ConcurrentSegmentNodeDatabase
+     */
+    @Override
+    public SegmentNodeDatabase buildSegmentNodeDatabase() {
+        return new ConcurrentSegmentNodeDatabase();
+    }
+}
@@ -42,6 +42,43 @@ public class DefaultBuilder
     	if (segments != null) segments.addUndirectedEdge(from, to);
     }
     
+    /**
+     * Removes the segment between the two specified PointNodes from the specified SegmentNodeDatabase.
+     * @param segments - SegmentNodeDatabase to remove from
+     * @param from - one PointNode of the segment
+     * @param to - the other PointNode of the segment
+     * @return true if the segment was removed
+     */
+    public boolean removeSegmentFromDatabase(SegmentNodeDatabase segments, PointNode from, PointNode to)
+    {
+    	return segments != null && segments.removeUndirectedEdge(from, to);
+    }
+    
+    /**
+     * Adds a point to the specified PointNodeDatabase unless it already holds an equal point.
+     * @param points - PointNodeDatabase to add to
+     * @param point - PointNode to add
+     * @return true if the point was added
+     */
+    public boolean addPointToDatabase(PointNodeDatabase points, PointNode point)
+    {
+    	if (points == null || point == null || points.contains(point)) return false;
+    	
+    	points.put(point);
+    	return true;
+    }
+    
+    /**
+     * Removes a point from the specified PointNodeDatabase. Its segments are not touched.
+     * @param points - PointNodeDatabase to remove from
+     * @param point - PointNode to remove
+     * @return true if the point was removed
+     */
+    public boolean removePointFromDatabase(PointNodeDatabase points, PointNode point)
+    {
+    	return points != null && points.remove(point);
+    }
+    
     public SegmentNode buildSegmentNode(PointNode pt1, PointNode pt2)
     {
         return null;
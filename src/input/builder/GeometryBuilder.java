@@ -7,15 +7,65 @@ import input.components.segment.SegmentNode;
 import input.components.segment.SegmentNodeDatabase;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * All object creation is delegated to this class. Each method of this class 
  * simply creates a new instance of the appropriate object, and any parameters required 
  * for construction are passed by the building method.  
+ * <p>
+ * An interning builder hands out one shared PointNode per distinct name and exact
+ * coordinates for as long as the builder lives, so figures that repeat points share
+ * their instances. The table is safe to use from several parsing threads. It is never
+ * trimmed: it holds every distinct point the builder has built, for the builder's
+ * whole lifetime, so a long-lived interning builder should only see a bounded set of
+ * points.
  * @author brycenaddison
  * @created Wed Oct 12 2022
  */
 public class GeometryBuilder extends DefaultBuilder {
+    protected PointNodeDatabase.NamePolicy _namePolicy;
+
+    // shared points by name and coordinates, null unless interning
+    protected ConcurrentMap<PointKey, PointNode> _interned;
+
+    public GeometryBuilder() {
+        this(PointNodeDatabase.NamePolicy.FIRST_WINS);
+    }
+
+    /**
+     * @param namePolicy how built PointNodeDatabases treat duplicate point names
+     */
+    public GeometryBuilder(PointNodeDatabase.NamePolicy namePolicy) {
+        this(namePolicy, false);
+    }
+
+    /**
+     * @param namePolicy   how built PointNodeDatabases treat duplicate point names
+     * @param internPoints whether buildPointNode returns shared instances
+     */
+    public GeometryBuilder(PointNodeDatabase.NamePolicy namePolicy, boolean internPoints) {
+        _namePolicy = namePolicy;
+        _interned = internPoints ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * @return a builder whose points are interned, with the default name policy; its
+     * intern table grows until the builder is dropped
+     */
+    public static GeometryBuilder interning() {
+        return new GeometryBuilder(PointNodeDatabase.NamePolicy.FIRST_WINS, true);
+    }
+
+    /**
+     * @return the number of distinct points interned so far; 0 if not interning
+     */
+    public int numInternedPoints() {
+        return _interned == null ? 0 : _interned.size();
+    }
+
     /**
      * @param description
      * @param points
@@ -51,7 +101,7 @@ public class GeometryBuilder extends DefaultBuilder {
      */
     @Override
     public PointNodeDatabase buildPointDatabaseNode(List<PointNode> points) {
-        return new PointNodeDatabase(points);
+        return new PointNodeDatabase(points, _namePolicy);
     }
 
     /**
@@ -62,6 +112,37 @@ public class GeometryBuilder extends DefaultBuilder {
      */
     @Override
     public PointNode buildPointNode(String name, double x, double y) {
-        return new PointNode(name, x, y);
+        if (_interned == null) return new PointNode(name, x, y);
+
+        return _interned.computeIfAbsent(new PointKey(name, x, y), k -> new PointNode(name, x, y));
+    }
+
+    /**
+     * Interning key: the name and the exact bits of both coordinates. Points that are
+     * only equal within EPSILON stay distinct; merging those is the database's job.
+     */
+    protected static final class PointKey {
+        private final String _name;
+        private final long _x;
+        private final long _y;
+
+        private PointKey(String name, double x, double y) {
+            _name = name;
+            _x = Double.doubleToLongBits(x);
+            _y = Double.doubleToLongBits(y);
+        }
+
+        @Override
+        public int hashCode() {
+            return (Objects.hashCode(_name) * 31 + Long.hashCode(_x)) * 31 + Long.hashCode(_y);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof PointKey)) return false;
+
+            PointKey other = (PointKey) obj;
+            return _x == other._x && _y == other._y && Objects.equals(_name, other._name);
+        }
     }
 }
@@ -4,6 +4,13 @@ import input.visitor.ComponentNodeVisitor;
 
 public interface ComponentNode
 {
-	Object accept(ComponentNodeVisitor visitor, Object o);
+	/**
+	 * Accept the call to be visited by calling the appropriate visit method for this ComponentNode
+	 *
+	 * @param <R> type the visitor returns
+	 * @param <A> type of the argument the visitor takes
+	 * @return whatever the visit method returns
+	 */
+	<R, A> R accept(ComponentNodeVisitor<R, A> visitor, A o);
 
 }
@@ -1,6 +1,8 @@
 package input.components;
 
+import input.components.point.FrozenPointNodeDatabase;
 import input.components.point.PointNodeDatabase;
+import input.components.segment.FrozenSegmentNodeDatabase;
 import input.components.segment.SegmentNodeDatabase;
 import input.visitor.ComponentNodeVisitor;
 
@@ -32,11 +34,25 @@ public class FigureNode implements ComponentNode {
         return _segments;
     }
 
+    /**
+     * Returns a read-only copy of this figure, safe to share between threads: both
+     * databases are frozen and the points keep their order.
+     */
+    public FigureNode freeze() {
+        if (isFrozen()) return this;
+
+        return new FigureNode(_description, _points.freeze(), _segments.freeze(_points));
+    }
+
+    public boolean isFrozen() {
+        return _points instanceof FrozenPointNodeDatabase && _segments instanceof FrozenSegmentNodeDatabase;
+    }
+
     /**
      * Accept the call to be visited by calling the appropriate visit method for this ComponentNode
      */
     @Override
-    public Object accept(ComponentNodeVisitor visitor, Object o)
+    public <R, A> R accept(ComponentNodeVisitor<R, A> visitor, A o)
     {
     	return visitor.visitFigureNode(this, o);
     }
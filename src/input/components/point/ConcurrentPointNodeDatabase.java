@@ -0,0 +1,433 @@
+package input.components.point;
+
+import utilities.math.MathUtilities;
+import utilities.spatial.SpatialGrid;
+import utilities.spatial.SynchronizedSpatialGrid;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A PointNodeDatabase that several threads can fill at once.
+ * <p>
+ * Points are kept in EPSILON-wide grid cells as in PointNodeDatabase, but each cell
+ * holds an array that is replaced rather than changed, so lookups take no lock. Cells
+ * are grouped into square regions, and each region hashes to one of a fixed set of lock
+ * stripes. Adding a point holds the stripes of every region its 3x3 block of cells
+ * touches, usually just one; two points equal within EPSILON always share a stripe, so
+ * the lookup and the insert in putIfAbsent happen as one step.
+ * <p>
+ * Insertion order is kept per stripe too, so writers in different regions share no
+ * counter or list. Each point is stamped from the clock, strictly increasing for each
+ * thread, and getPoints() merges the stripes by stamp: the points one thread adds keep
+ * their order, and points added by different threads come out in about the order they
+ * were added. getPoints() is a read-only view, and is only weakly consistent while other
+ * threads write; freeze() gives an exact copy. Once built, the spatial index is kept up
+ * to date under the stripes of the point that changes, and may be searched while other
+ * threads write.
+ */
+public class ConcurrentPointNodeDatabase extends PointNodeDatabase {
+    private static final int STRIPES = 512;
+
+    // width of a lock region, in grid cells
+    private static final int REGION_CELLS = 64;
+
+    // the last stamp each thread handed out
+    private static final ThreadLocal<long[]> LAST_STAMP = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * A stored point, the stripe whose list holds it, and its place in that list: by
+     * stamp, then by the order the stripe received it.
+     */
+    private static final class Slot implements Comparable<Slot> {
+        private final PointNode _node;
+        private final int _stripe;
+        private final long _stamp;
+        private final long _seq;
+
+        private Slot(PointNode node, int stripe, long stamp, long seq) {
+            _node = node;
+            _stripe = stripe;
+            _stamp = stamp;
+            _seq = seq;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int c = Long.compare(_stamp, other._stamp);
+            if (c == 0) c = Long.compare(_seq, other._seq);
+            return c != 0 ? c : Integer.compare(_stripe, other._stripe);
+        }
+    }
+
+    /**
+     * The next point of one stripe's list while the lists are merged, and the rest of them.
+     */
+    private static final class Cursor {
+        private Slot _slot;
+        private final Iterator<Slot> _rest;
+
+        private Cursor(Iterator<Slot> rest) {
+            _slot = rest.next();
+            _rest = rest;
+        }
+    }
+
+    /**
+     * The points in insertion order; membership is decided by the grid.
+     */
+    private static final class PointSet extends AbstractSet<PointNode> {
+        private final ConcurrentMap<Long, Slot[]> _cells = new ConcurrentHashMap<Long, Slot[]>();
+
+        // the points of each stripe, created with its first point; changed under the stripe's lock
+        private final AtomicReferenceArray<ConcurrentSkipListSet<Slot>> _stripes = new AtomicReferenceArray<>(STRIPES);
+        private final long[] _seqs = new long[STRIPES];
+        private final LongAdder _size = new LongAdder();
+
+        private Slot add(PointNode node, int stripe) {
+            ConcurrentSkipListSet<Slot> list = _stripes.get(stripe);
+            if (list == null) {
+                list = new ConcurrentSkipListSet<Slot>();
+                _stripes.set(stripe, list);
+            }
+
+            long[] last = LAST_STAMP.get();
+            last[0] = Math.max(System.nanoTime(), last[0] + 1);
+
+            Slot slot = new Slot(node, stripe, last[0], _seqs[stripe]++);
+            list.add(slot);
+            _size.increment();
+            return slot;
+        }
+
+        private void drop(Slot slot) {
+            _stripes.get(slot._stripe).remove(slot);
+            _size.decrement();
+        }
+
+        /**
+         * Merges the stripes' lists; read-only, as the default remove() would bypass the grid.
+         */
+        @Override
+        public Iterator<PointNode> iterator() {
+            PriorityQueue<Cursor> heads = new PriorityQueue<>((a, b) -> a._slot.compareTo(b._slot));
+            for (int i = 0; i < STRIPES; i++) {
+                ConcurrentSkipListSet<Slot> list = _stripes.get(i);
+                if (list == null) continue;
+
+                Iterator<Slot> it = list.iterator();
+                if (it.hasNext()) heads.add(new Cursor(it));
+            }
+
+            return new Iterator<PointNode>() {
+                @Override
+                public boolean hasNext() {
+                    return !heads.isEmpty();
+                }
+
+                @Override
+                public PointNode next() {
+                    Cursor head = heads.poll();
+                    if (head == null) throw new NoSuchElementException();
+
+                    PointNode node = head._slot._node;
+                    if (head._rest.hasNext()) {
+                        head._slot = head._rest.next();
+                        heads.add(head);
+                    }
+                    return node;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return _size.intValue();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof PointNode)) return false;
+
+            PointNode p = (PointNode) o;
+            Slot stored = find(_cells, cell(p.getX()), cell(p.getY()), p.getX(), p.getY());
+            return stored != null && o.equals(stored._node);
+        }
+    }
+
+    private final ConcurrentMap<Long, Slot[]> _cells;
+    protected final ReentrantLock[] _locks;
+    private final PointSet _order;
+
+    // _index once it is complete, for readers that hold no stripe
+    private volatile SpatialGrid<PointNode> _liveIndex;
+
+    /**
+     * create empty ConcurrentPointNodeDatabase
+     */
+    public ConcurrentPointNodeDatabase() {
+        this(NamePolicy.FIRST_WINS);
+    }
+
+    /**
+     * create empty ConcurrentPointNodeDatabase
+     *
+     * @param policy for points added under a name that is already taken
+     */
+    public ConcurrentPointNodeDatabase(NamePolicy policy) {
+        this(policy, new PointSet());
+    }
+
+    private ConcurrentPointNodeDatabase(NamePolicy policy, PointSet points) {
+        super(policy, points, new ConcurrentHashMap<String, PointNode>());
+
+        _order = points;
+        _cells = points._cells;
+        _locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            _locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * create ConcurrentPointNodeDatabase with list of point nodes in it
+     *
+     * @param list   of PointNodes
+     * @param policy for points added under a name that is already taken
+     */
+    public ConcurrentPointNodeDatabase(List<PointNode> list, NamePolicy policy) {
+        this(policy);
+
+        for (PointNode node : list) {
+            this.put(node);
+        }
+    }
+
+    /**
+     * @param node to put into database
+     * @throws IllegalArgumentException if the policy is REJECT and the name is already taken
+     */
+    @Override
+    public void put(PointNode node) {
+        this.insert(node.getName(), node.getX(), node.getY(), node);
+    }
+
+    /**
+     * Atomically returns the point equal to (x, y) within EPSILON, adding a new point
+     * with the specified name if there is none.
+     *
+     * @param x    value of node
+     * @param y    value of node
+     * @param name of the node to add; null for an unnamed point
+     * @return the point stored for (x, y)
+     * @throws IllegalArgumentException if a point is added, the policy is REJECT and the name is already taken
+     */
+    public PointNode putIfAbsent(double x, double y, String name) {
+        return this.insert(name, x, y, null);
+    }
+
+    private PointNode insert(String name, double x, double y, PointNode node) {
+        long cx = cell(x), cy = cell(y);
+        int[] stripes = stripes(cx, cy);
+
+        for (int s : stripes) _locks[s].lock();
+        try {
+            Slot existing = find(_cells, cx, cy, x, y);
+            if (existing != null) return existing._node;
+
+            if (node == null) node = name == null ? new PointNode(x, y) : new PointNode(name, x, y);
+
+            // points with different coordinates may take the same name under different locks
+            PointNode named = _names.putIfAbsent(node.getName(), node);
+            if (named != null && _namePolicy == NamePolicy.REJECT && !node.getName().equals(PointNode.ANONYMOUS)) {
+                throw new IllegalArgumentException("Duplicate point name: " + node.getName());
+            }
+
+            // the stripe of the point's own region is among those held
+            Slot slot = _order.add(node, stripe(Math.floorDiv(cx, REGION_CELLS), Math.floorDiv(cy, REGION_CELLS)));
+            _cells.merge(key(cx, cy), new Slot[] { slot }, ConcurrentPointNodeDatabase::append);
+            if (_index != null) _index.insert(node, x, y);
+            return node;
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) _locks[stripes[i]].unlock();
+        }
+    }
+
+    /**
+     * Atomically removes the point equal to node.
+     *
+     * @param node to remove
+     * @return true if the database held a point equal to node
+     */
+    @Override
+    public boolean remove(PointNode node) {
+        long cx = cell(node.getX()), cy = cell(node.getY());
+        int[] stripes = stripes(cx, cy);
+
+        for (int s : stripes) _locks[s].lock();
+        try {
+            Slot stored = find(_cells, cx, cy, node.getX(), node.getY());
+            if (stored == null) return false;
+
+            PointNode p = stored._node;
+            _cells.computeIfPresent(key(cell(p.getX()), cell(p.getY())), (k, cell) -> without(cell, stored));
+            _names.remove(p.getName(), p);
+            _order.drop(stored);
+            if (_index != null) _index.remove(p, p.getX(), p.getY(), p.getX(), p.getY());
+            return true;
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) _locks[stripes[i]].unlock();
+        }
+    }
+
+    @Override
+    public PointNode getPoint(double x, double y) {
+        Slot stored = find(_cells, cell(x), cell(y), x, y);
+        return stored == null ? null : stored._node;
+    }
+
+    private static Slot find(ConcurrentMap<Long, Slot[]> cells, long cx, long cy, double x, double y) {
+        Slot s = find(cells, key(cx, cy), x, y);
+        if (s != null) return s;
+
+        for (long dx = -1; dx <= 1; dx++) {
+            for (long dy = -1; dy <= 1; dy++) {
+                if (dx == 0 && dy == 0) continue;
+
+                s = find(cells, key(cx + dx, cy + dy), x, y);
+                if (s != null) return s;
+            }
+        }
+        return null;
+    }
+
+    private static Slot find(ConcurrentMap<Long, Slot[]> cells, long key, double x, double y) {
+        Slot[] cell = cells.get(key);
+        if (cell == null) return null;
+
+        for (Slot s : cell) {
+            PointNode p = s._node;
+            if (MathUtilities.doubleEquals(x, p.getX()) && MathUtilities.doubleEquals(y, p.getY())) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a read-only copy of exactly the points present at one instant.
+     */
+    @Override
+    public FrozenPointNodeDatabase freeze() {
+        this.lockAll();
+        try {
+            return super.freeze();
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    /**
+     * @return a spatial index over the points, built on the first call and kept up to
+     * date as points are added and removed
+     */
+    @Override
+    public SpatialGrid<PointNode> getSpatialIndex() {
+        SpatialGrid<PointNode> index = _liveIndex;
+        if (index != null) return index;
+
+        // no writer may change the points between building the index and publishing it
+        this.lockAll();
+        try {
+            if (_liveIndex == null) _liveIndex = super.getSpatialIndex();
+            return _liveIndex;
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    @Override
+    protected SpatialGrid<PointNode> newSpatialIndex(double cellSize, int expected) {
+        return new SynchronizedSpatialGrid<PointNode>(cellSize, expected);
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : _locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            _locks[i].unlock();
+        }
+    }
+
+    private static Slot[] append(Slot[] cell, Slot[] added) {
+        Slot[] result = Arrays.copyOf(cell, cell.length + 1);
+        result[cell.length] = added[0];
+        return result;
+    }
+
+    // null drops the cell from the map
+    private static Slot[] without(Slot[] cell, Slot removed) {
+        if (cell.length == 1) return cell[0] == removed ? null : cell;
+
+        Slot[] result = new Slot[cell.length - 1];
+        int n = 0;
+        for (Slot s : cell) {
+            if (s == removed) continue;
+            if (n == result.length) return cell;
+            result[n++] = s;
+        }
+        return result;
+    }
+
+    /**
+     * @return the distinct stripes of the regions around cell (cx, cy), in increasing
+     * order so that two writers cannot deadlock
+     */
+    private static int[] stripes(long cx, long cy) {
+        long rx0 = Math.floorDiv(cx - 1, REGION_CELLS), rx1 = Math.floorDiv(cx + 1, REGION_CELLS);
+        long ry0 = Math.floorDiv(cy - 1, REGION_CELLS), ry1 = Math.floorDiv(cy + 1, REGION_CELLS);
+
+        int[] stripes = new int[(int) ((rx1 - rx0 + 1) * (ry1 - ry0 + 1))];
+        int n = 0;
+        for (long rx = rx0; rx <= rx1; rx++) {
+            for (long ry = ry0; ry <= ry1; ry++) {
+                stripes[n++] = stripe(rx, ry);
+            }
+        }
+        if (n == 1) return stripes;
+
+        Arrays.sort(stripes);
+        int distinct = 1;
+        for (int i = 1; i < n; i++) {
+            if (stripes[i] != stripes[distinct - 1]) stripes[distinct++] = stripes[i];
+        }
+        return Arrays.copyOf(stripes, distinct);
+    }
+
+    private static int stripe(long rx, long ry) {
+        long h = (rx * 0x9E3779B97F4A7C15L + ry) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (h >>> 32) & (STRIPES - 1);
+    }
+
+    private static long cell(double value) {
+        return (long) Math.floor(value / MathUtilities.EPSILON);
+    }
+
+    private static long key(long cx, long cy) {
+        return cx * 0x9E3779B97F4A7C15L + cy;
+    }
+}
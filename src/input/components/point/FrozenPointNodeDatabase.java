@@ -0,0 +1,62 @@
+package input.components.point;
+
+import utilities.spatial.SpatialGrid;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A read-only copy of a PointNodeDatabase, safe to share between threads.
+ * <p>
+ * Created by PointNodeDatabase.freeze(). Lookups and queries work as they do on the
+ * database it was created from; put and remove throw an UnsupportedOperationException and
+ * getPoints() returns an unmodifiable view.
+ */
+public class FrozenPointNodeDatabase extends PointNodeDatabase {
+    /**
+     * Copies the points and the name index as they are, so every name stays on the
+     * point the source database gave it.
+     *
+     * @param points the database to copy
+     */
+    FrozenPointNodeDatabase(PointNodeDatabase points) {
+        super(points.getNamePolicy(), Collections.unmodifiableSet(new LinkedHashSet<>(points.getPoints())),
+              new HashMap<>(points._names));
+
+        _grid = new PointNodeGrid();
+        for (PointNode node : _points) {
+            _grid.add(node);
+        }
+    }
+
+    @Override
+    public void put(PointNode node) {
+        throw new UnsupportedOperationException("A frozen PointNodeDatabase cannot be modified");
+    }
+
+    @Override
+    public boolean remove(PointNode node) {
+        throw new UnsupportedOperationException("A frozen PointNodeDatabase cannot be modified");
+    }
+
+    @Override
+    public Set<PointNode> getPoints() {
+        return _points;
+    }
+
+    /**
+     * The points never change, so the index is built once, on the first call; the call
+     * is synchronized because every thread holding this database may make it.
+     */
+    @Override
+    public synchronized SpatialGrid<PointNode> getSpatialIndex() {
+        return super.getSpatialIndex();
+    }
+
+    @Override
+    public FrozenPointNodeDatabase freeze() {
+        return this;
+    }
+}
@@ -15,9 +15,12 @@ public class PointNode implements ComponentNode {
 
     protected static final String ANONYMOUS = "__UNNAMED";
 
-    protected double _x;
-    protected double _y;
-    protected String _name;
+    protected final double _x;
+    protected final double _y;
+    protected final String _name;
+
+    // points are immutable, so the hash is computed once; see hash()
+    protected final int _hash;
 
     /**
      * Create a new Point with the specified coordinates.
@@ -40,6 +43,7 @@ public class PointNode implements ComponentNode {
         this._name = name;
         this._x = x;
         this._y = y;
+        this._hash = hash(x, y);
     }
 
     public double getX() {
@@ -56,14 +60,27 @@ public class PointNode implements ComponentNode {
 
     @Override
     public int hashCode() {
-        final int prime = 37;
-        int result = 1;
-        long temp;
-        temp = Double.doubleToLongBits(MathUtilities.removeLessEpsilon(this.getX()));
-        result = prime * result + (int) (temp ^ (temp >>> 32));
-        temp = Double.doubleToLongBits(MathUtilities.removeLessEpsilon(this.getY()));
-        result = prime * result + (int) (temp ^ (temp >>> 32));
-        return result;
+        return this._hash;
+    }
+
+    /**
+     * Hashes the coordinates truncated to the precision of removeLessEpsilon. Whole-number
+     * coordinates differ only in a few high bits of their doubles, so the bits are run
+     * through the MurmurHash3 64-bit finalizer rather than folded together directly.
+     */
+    private static int hash(double x, double y) {
+        long h = mix(Double.doubleToLongBits(MathUtilities.removeLessEpsilon(x)));
+        h = mix(h + Double.doubleToLongBits(MathUtilities.removeLessEpsilon(y)));
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb3fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
     }
 
     /**
@@ -97,7 +114,7 @@ public class PointNode implements ComponentNode {
      * Accept the call to be visited by calling the appropriate visit method for this ComponentNode
      */
     @Override
-    public Object accept(ComponentNodeVisitor visitor, Object o)
+    public <R, A> R accept(ComponentNodeVisitor<R, A> visitor, A o)
     {
     	return visitor.visitPointNode(this, o);
     }
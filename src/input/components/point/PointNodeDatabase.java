@@ -2,27 +2,81 @@ package input.components.point;
 
 import input.components.ComponentNode;
 import input.visitor.ComponentNodeVisitor;
-import utilities.math.MathUtilities;
+import utilities.spatial.SpatialGrid;
 
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Stores Point Nodes in LinkedHashSet
+ * <p>
+ * Coordinate lookups go through a grid index kept alongside the set, so they take
+ * expected constant time; the set still provides insertion order for getPoints().
+ * Name lookups go through a name index in the same way. Rectangle and nearest-point
+ * queries use a SpatialGrid that is built on first use and kept up to date by put.
  *
  * @author georgelamb
  * @version Wed September 7 2022
  */
 public class PointNodeDatabase implements ComponentNode {
+    /**
+     * What to do when a point is added under a name that is already taken
+     * by a different point. Unnamed points are never considered duplicates.
+     */
+    public enum NamePolicy {
+        /** keep the point that was added first; getPoint(name) returns it */
+        FIRST_WINS,
+        /** throw an IllegalArgumentException */
+        REJECT
+    }
+
     protected Set<PointNode> _points;
+    protected PointNodeGrid _grid;
+    protected Map<String, PointNode> _names;
+    protected NamePolicy _namePolicy;
+
+    // built by getSpatialIndex(), null until then
+    protected SpatialGrid<PointNode> _index;
 
     /**
      * create empty PointNodeDataBase
      */
     public PointNodeDatabase() {
 
+        this(NamePolicy.FIRST_WINS);
+
+    }
+
+    /**
+     * create empty PointNodeDataBase
+     *
+     * @param policy for points added under a name that is already taken
+     */
+    public PointNodeDatabase(NamePolicy policy) {
+
         _points = new LinkedHashSet<PointNode>();
+        _grid = new PointNodeGrid();
+        _names = new HashMap<String, PointNode>();
+        _namePolicy = policy;
+
+    }
+
+    /**
+     * For subclasses that keep their points in other collections: the collections are
+     * used as given and no grid is created.
+     *
+     * @param policy for points added under a name that is already taken
+     * @param points the point set
+     * @param names  the name index
+     */
+    protected PointNodeDatabase(NamePolicy policy, Set<PointNode> points, Map<String, PointNode> names) {
+
+        _points = points;
+        _names = names;
+        _namePolicy = policy;
 
     }
 
@@ -33,7 +87,23 @@ public class PointNodeDatabase implements ComponentNode {
      */
     public PointNodeDatabase(List<PointNode> list) {
 
-        _points = new LinkedHashSet<PointNode>(list);
+        this(list, NamePolicy.FIRST_WINS);
+
+    }
+
+    /**
+     * create PointNodeDatabase with list of point nodes in it
+     *
+     * @param list   of PointNodes
+     * @param policy for points added under a name that is already taken
+     */
+    public PointNodeDatabase(List<PointNode> list, NamePolicy policy) {
+
+        this(policy);
+
+        for (PointNode node : list) {
+            this.put(node);
+        }
 
     }
 
@@ -42,11 +112,46 @@ public class PointNodeDatabase implements ComponentNode {
     	return _points;
     }
     
+    public NamePolicy getNamePolicy()
+    {
+    	return _namePolicy;
+    }
+
     /**
      * @param node to put into database
+     * @throws IllegalArgumentException if the policy is REJECT and the name is already taken
      */
     public void put(PointNode node) {
-        _points.add(node);
+        PointNode named = _names.get(node.getName());
+
+        if (named != null && !named.equals(node) && _namePolicy == NamePolicy.REJECT
+                && !node.getName().equals(PointNode.ANONYMOUS)) {
+            throw new IllegalArgumentException("Duplicate point name: " + node.getName());
+        }
+
+        if (!_points.add(node)) return;
+
+        _grid.add(node);
+        if (_index != null) _index.insert(node, node.getX(), node.getY());
+        if (named == null) _names.put(node.getName(), node);
+    }
+
+    /**
+     * Removes the point equal to node. If another point was added under the same name
+     * and kept out of the name index by FIRST_WINS, it does not take the name over.
+     *
+     * @param node to remove
+     * @return true if the database held a point equal to node
+     */
+    public boolean remove(PointNode node) {
+        PointNode stored = this.getPoint(node);
+        if (stored == null) return false;
+
+        _points.remove(stored);
+        _grid.remove(stored);
+        if (_index != null) _index.remove(stored, stored.getX(), stored.getY(), stored.getX(), stored.getY());
+        _names.remove(stored.getName(), stored);
+        return true;
     }
 
     /**
@@ -99,28 +204,76 @@ public class PointNodeDatabase implements ComponentNode {
      * @return node to get
      */
     public PointNode getPoint(double x, double y) {
-        for (PointNode p : this._points) {
-            if (MathUtilities.doubleEquals(x, p.getX()) && MathUtilities.doubleEquals(y, p.getY())) {
-                return p;
+        return _grid.get(x, y);
+    }
+
+
+    /**
+     * @param name of node
+     * @return node with that name, or null if there is none
+     */
+    public PointNode getPoint(String name) {
+        return _names.get(name);
+    }
+
+    /**
+     * Returns a read-only copy of this database that can be shared between threads.
+     */
+    public FrozenPointNodeDatabase freeze() {
+        return new FrozenPointNodeDatabase(this);
+    }
+
+    /**
+     * @return the spatial index over the points, built from them on the first call
+     */
+    public SpatialGrid<PointNode> getSpatialIndex() {
+        if (_index == null) {
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (PointNode p : _points) {
+                minX = Math.min(minX, p.getX());
+                minY = Math.min(minY, p.getY());
+                maxX = Math.max(maxX, p.getX());
+                maxY = Math.max(maxY, p.getY());
+            }
+
+            _index = this.newSpatialIndex(SpatialGrid.cellSize(maxX - minX, maxY - minY, _points.size()), _points.size());
+            for (PointNode p : _points) {
+                _index.insert(p, p.getX(), p.getY());
             }
         }
-        return null;
+        return _index;
+    }
 
+    /**
+     * @return an empty index for getSpatialIndex() to fill
+     */
+    protected SpatialGrid<PointNode> newSpatialIndex(double cellSize, int expected) {
+        return new SpatialGrid<PointNode>(cellSize, expected);
     }
 
+    /**
+     * @return every point in the rectangle [minX, maxX] x [minY, maxY]
+     */
+    public List<PointNode> getPointsInRange(double minX, double minY, double maxX, double maxY) {
+        return this.getSpatialIndex().search(minX, minY, maxX, maxY);
+    }
 
-    public PointNode getPoint(String name) {
-        for (PointNode p: this._points) {
-            if (p.getName().equals(name)) return p;
-        }
-        return null;
+    /**
+     * @param x value to search from
+     * @param y value to search from
+     * @param k number of points wanted
+     * @return the k points nearest to (x, y), nearest first
+     */
+    public List<PointNode> getNearestPoints(double x, double y, int k) {
+        return this.getSpatialIndex().nearest(x, y, k, (p, px, py) -> Math.hypot(p.getX() - px, p.getY() - py));
     }
 
     /**
      * Accept the call to be visited by calling the appropriate visit method for this ComponentNode
      */
     @Override
-    public Object accept(ComponentNodeVisitor visitor, Object o) {
+    public <R, A> R accept(ComponentNodeVisitor<R, A> visitor, A o) {
     	return visitor.visitPointNodeDatabase(this, o);
     }
     
@@ -0,0 +1,101 @@
+package input.components.point;
+
+import utilities.math.MathUtilities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid over the plane whose cells are EPSILON wide. Any two points that are
+ * equal within EPSILON lie in the same or in neighboring cells, so an epsilon-equal
+ * lookup only inspects the 3x3 block of cells around the query coordinate.
+ */
+class PointNodeGrid {
+    protected Map<Long, List<PointNode>> _cells;
+
+    /**
+     * create empty grid
+     */
+    PointNodeGrid() {
+        _cells = new HashMap<Long, List<PointNode>>();
+    }
+
+    /**
+     * @param node to index by its coordinates
+     */
+    void add(PointNode node) {
+        long cx = cell(node.getX());
+        long cy = cell(node.getY());
+
+        _cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<PointNode>(1)).add(node);
+    }
+
+    /**
+     * @param node to stop indexing; the same instance that was added
+     * @return true if the node was in the grid
+     */
+    boolean remove(PointNode node) {
+        long key = key(cell(node.getX()), cell(node.getY()));
+        List<PointNode> cell = _cells.get(key);
+        if (cell == null) return false;
+
+        for (int i = 0; i < cell.size(); i++) {
+            if (cell.get(i) != node) continue;
+
+            cell.remove(i);
+            if (cell.isEmpty()) _cells.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param x value to look up
+     * @param y value to look up
+     * @return a point equal to (x, y) within EPSILON, or null if there is none
+     */
+    PointNode get(double x, double y) {
+        long cx = cell(x);
+        long cy = cell(y);
+
+        // the cell containing (x, y) is checked first; the neighbors only matter near cell borders
+        PointNode p = find(key(cx, cy), x, y);
+        if (p != null) return p;
+
+        for (long dx = -1; dx <= 1; dx++) {
+            for (long dy = -1; dy <= 1; dy++) {
+                if (dx == 0 && dy == 0) continue;
+
+                p = find(key(cx + dx, cy + dy), x, y);
+                if (p != null) return p;
+            }
+        }
+        return null;
+    }
+
+    private PointNode find(long key, double x, double y) {
+        List<PointNode> cell = _cells.get(key);
+        if (cell == null) return null;
+
+        for (PointNode p : cell) {
+            if (MathUtilities.doubleEquals(x, p.getX()) && MathUtilities.doubleEquals(y, p.getY())) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    private static long cell(double value) {
+        return (long) Math.floor(value / MathUtilities.EPSILON);
+    }
+
+    /**
+     * Packs a pair of cell coordinates into one key. Distinct cells may share a key;
+     * that only costs an extra comparison since find() checks every candidate.
+     */
+    private static long key(long cx, long cy) {
+        return cx * 0x9E3779B97F4A7C15L + cy;
+    }
+}
@@ -0,0 +1,219 @@
+package input.components.segment;
+
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import utilities.spatial.SpatialGrid;
+import utilities.spatial.SynchronizedSpatialGrid;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A SegmentNodeDatabase that several threads can fill at once.
+ * <p>
+ * Adjacency lists are concurrent sets in a ConcurrentHashMap, and every point hashes to
+ * one of a fixed set of lock stripes. Adding or removing segment AB holds the stripes
+ * of both A and B, so the two directions change together and no reader sees AB without
+ * BA: entrySet(), and the segment lists and unique views built on it, read a snapshot,
+ * which holds every stripe while it copies the lists, and getNeighbors(p) copies the
+ * list of p under the stripe of p. Each of these calls therefore costs a copy.
+ * <p>
+ * Once built, the spatial index is kept up to date under the stripes of the segment
+ * that changes, and may be searched while other threads write.
+ */
+public class ConcurrentSegmentNodeDatabase extends SegmentNodeDatabase {
+    private static final int STRIPES = 64;
+
+    protected final ReentrantLock[] _locks;
+    protected final AtomicInteger _edges;
+    protected final AtomicInteger _mods;
+
+    // _index once it is complete, for readers that hold no stripe
+    private volatile SpatialGrid<SegmentNode> _liveIndex;
+
+    /**
+     * Create a new empty ConcurrentSegmentNodeDatabase.
+     */
+    public ConcurrentSegmentNodeDatabase() {
+        super(new ConcurrentHashMap<>());
+
+        _locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            _locks[i] = new ReentrantLock();
+        }
+        _edges = new AtomicInteger();
+        _mods = new AtomicInteger();
+    }
+
+    @Override
+    protected Set<PointNode> newAdjacencyList() {
+        return ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public int numUndirectedEdges() {
+        return _edges.get();
+    }
+
+    @Override
+    public int modificationCount() {
+        return _mods.get();
+    }
+
+    /**
+     * Atomically adds the edge in both directions.
+     */
+    @Override
+    public void addUndirectedEdge(PointNode a, PointNode b) {
+        int first = stripe(a), second = stripe(b);
+        lock(first, second);
+        try {
+            boolean added = this.addDirectedEdge(a, b);
+            added |= this.addDirectedEdge(b, a);
+            if (!added) return;
+
+            _edges.incrementAndGet();
+            _mods.incrementAndGet();
+            if (_index != null) index(_index, new SegmentNode(a, b));
+        } finally {
+            unlock(first, second);
+        }
+    }
+
+    /**
+     * Atomically removes the edge in both directions.
+     */
+    @Override
+    public boolean removeUndirectedEdge(PointNode a, PointNode b) {
+        int first = stripe(a), second = stripe(b);
+        lock(first, second);
+        try {
+            boolean removed = this.removeDirectedEdge(a, b);
+            removed |= this.removeDirectedEdge(b, a);
+            if (!removed) return false;
+
+            _edges.decrementAndGet();
+            _mods.incrementAndGet();
+            if (_index != null) unindex(_index, new SegmentNode(a, b));
+            return true;
+        } finally {
+            unlock(first, second);
+        }
+    }
+
+    /**
+     * @return a plain SegmentNodeDatabase holding exactly the edges present at one instant
+     */
+    public SegmentNodeDatabase snapshot() {
+        this.lockAll();
+        try {
+            Map<PointNode, Set<PointNode>> copy = new HashMap<>(2 * _adjLists.size());
+            for (Entry<PointNode, Set<PointNode>> entry : _adjLists.entrySet()) {
+                copy.put(entry.getKey(), new HashSet<>(entry.getValue()));
+            }
+            return new SegmentNodeDatabase(copy);
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    /**
+     * @return the adjacency lists of a snapshot; changes to them do not reach the database
+     */
+    @Override
+    public Set<Entry<PointNode, Set<PointNode>>> entrySet() {
+        return this.snapshot().entrySet();
+    }
+
+    /**
+     * @return a read-only copy of the points p shares a segment with
+     */
+    @Override
+    public Set<PointNode> getNeighbors(PointNode p) {
+        int s = stripe(p);
+        _locks[s].lock();
+        try {
+            Set<PointNode> adjList = _adjLists.get(p);
+            return adjList == null ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(adjList));
+        } finally {
+            _locks[s].unlock();
+        }
+    }
+
+    /**
+     * Freezes a snapshot of the database.
+     */
+    @Override
+    public FrozenSegmentNodeDatabase freeze() {
+        return this.snapshot().freeze();
+    }
+
+    /**
+     * Freezes a snapshot of the database.
+     */
+    @Override
+    public FrozenSegmentNodeDatabase freeze(PointNodeDatabase points) {
+        return this.snapshot().freeze(points);
+    }
+
+    /**
+     * @return a spatial index over the segments, built on the first call from a
+     * snapshot and kept up to date as edges are added and removed
+     */
+    @Override
+    public SpatialGrid<SegmentNode> getSpatialIndex() {
+        SpatialGrid<SegmentNode> index = _liveIndex;
+        if (index != null) return index;
+
+        // no writer may change the edges between building the index and publishing it
+        this.lockAll();
+        try {
+            if (_liveIndex == null) _liveIndex = super.getSpatialIndex();
+            return _liveIndex;
+        } finally {
+            this.unlockAll();
+        }
+    }
+
+    @Override
+    protected SpatialGrid<SegmentNode> newSpatialIndex(double cellSize, int expected) {
+        return new SynchronizedSpatialGrid<>(cellSize, expected);
+    }
+
+    private static int stripe(PointNode p) {
+        int h = p.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Stripes are always taken in increasing order, so two writers cannot deadlock.
+     */
+    private void lock(int first, int second) {
+        _locks[Math.min(first, second)].lock();
+        if (first != second) _locks[Math.max(first, second)].lock();
+    }
+
+    private void unlock(int first, int second) {
+        if (first != second) _locks[Math.max(first, second)].unlock();
+        _locks[Math.min(first, second)].unlock();
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : _locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            _locks[i].unlock();
+        }
+    }
+}
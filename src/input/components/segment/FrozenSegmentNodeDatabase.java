@@ -0,0 +1,243 @@
+package input.components.segment;
+
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import utilities.spatial.SpatialGrid;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * A read-only SegmentNodeDatabase stored in compressed sparse row form. Every point
+ * gets an int id; the neighbors of point i are the ids
+ * targets[offsets[i]] ... targets[offsets[i + 1] - 1].
+ * <p>
+ * Created by SegmentNodeDatabase.freeze(). The query methods and visitors work as they
+ * do on the database it was created from; adding segments throws an
+ * UnsupportedOperationException.
+ */
+public class FrozenSegmentNodeDatabase extends SegmentNodeDatabase {
+    protected PointNode[] _points;
+    protected Map<PointNode, Integer> _ids;
+    protected int[] _offsets;
+    protected int[] _targets;
+
+    // number of points with at least one neighbor, i.e. the size of entrySet()
+    protected int _numAdjLists;
+
+    /**
+     * @param segments the database to copy
+     * @param points   the database that numbers the points, or null to number them
+     *                 in the order the adjacency lists of segments are stored
+     */
+    FrozenSegmentNodeDatabase(SegmentNodeDatabase segments, PointNodeDatabase points) {
+        super(Collections.emptyMap());
+
+        // number the points; the map is kept so getNeighbors can find a point's id
+        Map<PointNode, Integer> ids = new HashMap<>();
+        List<PointNode> ordered = new ArrayList<>();
+        if (points != null) {
+            for (PointNode p : points.getPoints()) {
+                number(p, ids, ordered);
+            }
+        }
+        int total = 0;
+        for (Entry<PointNode, Set<PointNode>> entry : segments.entrySet()) {
+            number(entry.getKey(), ids, ordered);
+            for (PointNode b : entry.getValue()) {
+                number(b, ids, ordered);
+            }
+            total += entry.getValue().size();
+        }
+
+        _points = ordered.toArray(new PointNode[0]);
+        _ids = ids;
+        _offsets = new int[_points.length + 1];
+        _targets = new int[total];
+
+        // count the neighbors of each point, then place them
+        for (Entry<PointNode, Set<PointNode>> entry : segments.entrySet()) {
+            _offsets[ids.get(entry.getKey()) + 1] += entry.getValue().size();
+        }
+        _numAdjLists = 0;
+        for (int i = 0; i < _points.length; i++) {
+            if (_offsets[i + 1] > 0) _numAdjLists++;
+            _offsets[i + 1] += _offsets[i];
+        }
+        for (Entry<PointNode, Set<PointNode>> entry : segments.entrySet()) {
+            int k = _offsets[ids.get(entry.getKey())];
+            for (PointNode b : entry.getValue()) {
+                _targets[k++] = ids.get(b);
+            }
+        }
+
+        this._numUndirectedEdges = segments.numUndirectedEdges();
+    }
+
+    private static void number(PointNode p, Map<PointNode, Integer> ids, List<PointNode> ordered) {
+        if (ids.putIfAbsent(p, ordered.size()) == null) ordered.add(p);
+    }
+
+    /**
+     * @return the number of points, which are numbered 0 ... numPoints() - 1
+     */
+    public int numPoints() {
+        return _points.length;
+    }
+
+    /**
+     * @param id of a point
+     * @return the point with that id
+     */
+    public PointNode getPoint(int id) {
+        return _points[id];
+    }
+
+    /**
+     * @param p a point
+     * @return the id of the point, or -1 if it is not in the database
+     */
+    public int getId(PointNode p) {
+        Integer id = _ids.get(p);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id of a point
+     * @return the number of neighbors of the point
+     */
+    public int degree(int id) {
+        return _offsets[id + 1] - _offsets[id];
+    }
+
+    /**
+     * @param id of a point
+     * @param k  which neighbor, from 0 to degree(id) - 1
+     * @return the id of the k-th neighbor of the point
+     */
+    public int neighbor(int id, int k) {
+        return _targets[_offsets[id] + k];
+    }
+
+    /**
+     * @throws UnsupportedOperationException always; a frozen database cannot change
+     */
+    @Override
+    public void addUndirectedEdge(PointNode a, PointNode b) {
+        throw new UnsupportedOperationException("A frozen SegmentNodeDatabase cannot be modified");
+    }
+
+    @Override
+    public boolean removeUndirectedEdge(PointNode a, PointNode b) {
+        throw new UnsupportedOperationException("A frozen SegmentNodeDatabase cannot be modified");
+    }
+
+    /**
+     * Looks up the id of p and returns a view over its slice of the CSR arrays; nothing
+     * is copied.
+     */
+    @Override
+    public Set<PointNode> getNeighbors(PointNode p) {
+        int id = getId(p);
+        return id < 0 ? Collections.emptySet() : new AdjacencySet(id);
+    }
+
+    /**
+     * Segment boxes are indexed from the CSR arrays when first asked for. The lock keeps
+     * readers on other threads from building a second grid at the same time.
+     */
+    @Override
+    public synchronized SpatialGrid<SegmentNode> getSpatialIndex() {
+        return super.getSpatialIndex();
+    }
+
+    @Override
+    public FrozenSegmentNodeDatabase freeze() {
+        return this;
+    }
+
+    @Override
+    public List<SegmentNode> asSegmentList() {
+        ArrayList<SegmentNode> list = new ArrayList<>(_targets.length);
+        for (int i = 0; i < _points.length; i++) {
+            for (int k = _offsets[i]; k < _offsets[i + 1]; k++) {
+                list.add(new SegmentNode(_points[i], _points[_targets[k]]));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Generate an entry set of adjacency lists. The entries and lists are read-only
+     * views over the compressed arrays, in order of point id.
+     */
+    @Override
+    public Set<Entry<PointNode, Set<PointNode>>> entrySet() {
+        return new AbstractSet<Entry<PointNode, Set<PointNode>>>() {
+            @Override
+            public Iterator<Entry<PointNode, Set<PointNode>>> iterator() {
+                return new Iterator<Entry<PointNode, Set<PointNode>>>() {
+                    private int _next = skipEmpty(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return _next < _points.length;
+                    }
+
+                    @Override
+                    public Entry<PointNode, Set<PointNode>> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+
+                        int id = _next;
+                        _next = skipEmpty(id + 1);
+                        return new AbstractMap.SimpleImmutableEntry<>(_points[id], new AdjacencySet(id));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return _numAdjLists;
+            }
+        };
+    }
+
+    private int skipEmpty(int id) {
+        while (id < _points.length && _offsets[id] == _offsets[id + 1]) id++;
+        return id;
+    }
+
+    /**
+     * A read-only view of the neighbors of one point.
+     */
+    private class AdjacencySet extends AbstractSet<PointNode> {
+        private final int _id;
+
+        AdjacencySet(int id) {
+            _id = id;
+        }
+
+        @Override
+        public Iterator<PointNode> iterator() {
+            return new Iterator<PointNode>() {
+                private int _k = _offsets[_id];
+
+                @Override
+                public boolean hasNext() {
+                    return _k < _offsets[_id + 1];
+                }
+
+                @Override
+                public PointNode next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return _points[_targets[_k++]];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return degree(_id);
+        }
+    }
+}
@@ -52,12 +52,28 @@ public class SegmentNode {
 				|| (this._point1.equals(s._point2) && this._point2.equals(s._point1)));
 	}
 
+	/**
+	 * Returns the same hash for AB and BA, as equals does not depend on the order of the
+	 * points. Each point hash is scrambled before the two are combined, so a point that
+	 * hashes to 0 (such as the origin) does not zero out the segment hash.
+	 */
 	@Override
 	public int hashCode() {
-		int hash = 7;
-		hash *= 31 * this._point1.hashCode();
-		hash *= 37 * this._point2.hashCode();
-		return hash;
+		int h1 = mix(this._point1.hashCode());
+		int h2 = mix(this._point2.hashCode());
+		return mix(Math.min(h1, h2) * 31 + Math.max(h1, h2));
+	}
+
+	/**
+	 * The 32-bit finalizer of MurmurHash3: every input bit affects every output bit.
+	 */
+	private static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
 	}
 
 	/**
@@ -2,10 +2,13 @@ package input.components.segment;
 
 import input.components.ComponentNode;
 import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
 import input.visitor.ComponentNodeVisitor;
+import utilities.spatial.SpatialGrid;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 
 /**
  * Stores line segments as an adjacency list.
@@ -16,11 +19,21 @@ import java.util.Map.Entry;
 public class SegmentNodeDatabase implements ComponentNode {
     protected Map<PointNode, Set<PointNode>> _adjLists;
 
+    // kept up to date by addUndirectedEdge so the count never needs a pass over _adjLists
+    protected int _numUndirectedEdges;
+
+    // bumped on every change to the edges so that results derived from them can tell they are stale
+    protected int _modCount;
+
+    // bounding boxes of the segments, built by getSpatialIndex() and null until then
+    protected SpatialGrid<SegmentNode> _index;
+
     /**
      * Create a new empty SegmentNodeDatabase.
      */
     public SegmentNodeDatabase() {
         this._adjLists = new HashMap<>();
+        this._numUndirectedEdges = 0;
     }
 
     /**
@@ -30,17 +43,35 @@ public class SegmentNodeDatabase implements ComponentNode {
      */
     public SegmentNodeDatabase(Map<PointNode, Set<PointNode>> adjLists) {
         this._adjLists = adjLists;
+        this._numUndirectedEdges = countUndirectedEdges(adjLists);
     }
 
     /**
-     * @return the number of edges in the SegmentNodeDatabase
+     * Counts the edges of a map of adjacency lists. Every edge AB is listed under both A
+     * and B except a self-loop AA, which is listed once.
      */
-    public int numUndirectedEdges() {
-        int count = 0;
-        for (Set<PointNode> adjList : this._adjLists.values()) {
-            count += adjList.size();
+    private static int countUndirectedEdges(Map<PointNode, Set<PointNode>> adjLists) {
+        int entries = 0;
+        int loops = 0;
+        for (Entry<PointNode, Set<PointNode>> entry : adjLists.entrySet()) {
+            entries += entry.getValue().size();
+            if (entry.getValue().contains(entry.getKey())) loops++;
         }
-        return count / 2;
+        return (entries - loops) / 2 + loops;
+    }
+
+    /**
+     * @return the number of edges in the SegmentNodeDatabase; a self-loop counts as one edge
+     */
+    public int numUndirectedEdges() {
+        return this._numUndirectedEdges;
+    }
+
+    /**
+     * @return a number that changes whenever an edge is added or removed
+     */
+    public int modificationCount() {
+        return this._modCount;
     }
 
     /**
@@ -49,10 +80,18 @@ public class SegmentNodeDatabase implements ComponentNode {
      *
      * @param a the key point
      * @param b the point to add to the key point's adjacency list
+     * @return true if the edge was not already in the database
+     */
+    protected boolean addDirectedEdge(PointNode a, PointNode b) {
+        Set<PointNode> adjList = this._adjLists.computeIfAbsent(a, k -> this.newAdjacencyList());
+        return adjList.add(b);
+    }
+
+    /**
+     * @return an empty adjacency list for a point that gets its first edge
      */
-    private void addDirectedEdge(PointNode a, PointNode b) {
-        Set<PointNode> adjList = this._adjLists.computeIfAbsent(a, k -> new HashSet<>());
-        adjList.add(b);
+    protected Set<PointNode> newAdjacencyList() {
+        return new HashSet<>();
     }
 
     /**
@@ -63,8 +102,45 @@ public class SegmentNodeDatabase implements ComponentNode {
      * @param b the other point in the edge
      */
     public void addUndirectedEdge(PointNode a, PointNode b) {
-        this.addDirectedEdge(a, b);
-        this.addDirectedEdge(b, a);
+        // for a self-loop the second add finds the edge already there
+        boolean added = this.addDirectedEdge(a, b);
+        added |= this.addDirectedEdge(b, a);
+        if (!added) return;
+
+        this._numUndirectedEdges++;
+        this._modCount++;
+        if (this._index != null) index(this._index, new SegmentNode(a, b));
+    }
+
+    /**
+     * Remove an edge going in one direction, dropping the key point once its
+     * adjacency list is empty.
+     *
+     * @return true if the edge was in the database
+     */
+    protected boolean removeDirectedEdge(PointNode a, PointNode b) {
+        Set<PointNode> adjList = this._adjLists.get(a);
+        if (adjList == null || !adjList.remove(b)) return false;
+        if (adjList.isEmpty()) this._adjLists.remove(a);
+        return true;
+    }
+
+    /**
+     * Remove the edge between two points in both directions.
+     *
+     * @param a the first point in the edge
+     * @param b the other point in the edge
+     * @return true if the edge was in the database
+     */
+    public boolean removeUndirectedEdge(PointNode a, PointNode b) {
+        boolean removed = this.removeDirectedEdge(a, b);
+        removed |= this.removeDirectedEdge(b, a);
+        if (!removed) return false;
+
+        this._numUndirectedEdges--;
+        this._modCount++;
+        if (this._index != null) unindex(this._index, new SegmentNode(a, b));
+        return true;
     }
 
     /**
@@ -89,7 +165,7 @@ public class SegmentNodeDatabase implements ComponentNode {
      */
     public List<SegmentNode> asSegmentList() {
         ArrayList<SegmentNode> list = new ArrayList<>();
-        for (Entry<PointNode, Set<PointNode>> entry : this._adjLists.entrySet()) {
+        for (Entry<PointNode, Set<PointNode>> entry : this.entrySet()) {
             PointNode a = entry.getKey();
             for (PointNode b : entry.getValue()) {
                 list.add(new SegmentNode(a, b));
@@ -108,18 +184,111 @@ public class SegmentNodeDatabase implements ComponentNode {
      * database.
      */
     public List<SegmentNode> asUniqueSegmentList() {
-        Set<SegmentNode> set = new HashSet<>(this.asSegmentList());
-        return new ArrayList<>(set);
+        ArrayList<SegmentNode> list = new ArrayList<>(this._numUndirectedEdges);
+        for (Entry<PointNode, Iterable<PointNode>> entry : this.uniqueAdjacencyLists()) {
+            PointNode a = entry.getKey();
+            for (PointNode b : entry.getValue()) {
+                list.add(new SegmentNode(a, b));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return a spatial index over the bounding boxes of the segments, built on the first
+     * call and kept up to date as edges are added and removed
+     */
+    public SpatialGrid<SegmentNode> getSpatialIndex() {
+        if (this._index == null) {
+            List<SegmentNode> segments = this.asUniqueSegmentList();
+
+            // cells about as large as a typical segment, so each lands in a few cells
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            double sides = 0;
+            for (SegmentNode s : segments) {
+                PointNode a = s.getPoint1(), b = s.getPoint2();
+                minX = Math.min(minX, Math.min(a.getX(), b.getX()));
+                minY = Math.min(minY, Math.min(a.getY(), b.getY()));
+                maxX = Math.max(maxX, Math.max(a.getX(), b.getX()));
+                maxY = Math.max(maxY, Math.max(a.getY(), b.getY()));
+                sides += Math.max(Math.abs(a.getX() - b.getX()), Math.abs(a.getY() - b.getY()));
+            }
+            double cellSize = SpatialGrid.cellSize(maxX - minX, maxY - minY, segments.size());
+            if (!segments.isEmpty()) cellSize = Math.max(cellSize, sides / segments.size());
+
+            this._index = this.newSpatialIndex(cellSize, segments.size());
+            for (SegmentNode s : segments) {
+                index(this._index, s);
+            }
+        }
+        return this._index;
+    }
+
+    /**
+     * @return an empty index for getSpatialIndex() to fill
+     */
+    protected SpatialGrid<SegmentNode> newSpatialIndex(double cellSize, int expected) {
+        return new SpatialGrid<>(cellSize, expected);
+    }
+
+    protected static void index(SpatialGrid<SegmentNode> index, SegmentNode s) {
+        PointNode a = s.getPoint1(), b = s.getPoint2();
+        index.insert(s, Math.min(a.getX(), b.getX()), Math.min(a.getY(), b.getY()),
+                     Math.max(a.getX(), b.getX()), Math.max(a.getY(), b.getY()));
+    }
+
+    protected static void unindex(SpatialGrid<SegmentNode> index, SegmentNode s) {
+        PointNode a = s.getPoint1(), b = s.getPoint2();
+        index.remove(s, Math.min(a.getX(), b.getX()), Math.min(a.getY(), b.getY()),
+                     Math.max(a.getX(), b.getX()), Math.max(a.getY(), b.getY()));
+    }
+
+    /**
+     * @return every segment whose bounding box intersects the rectangle
+     * [minX, maxX] x [minY, maxY]
+     */
+    public List<SegmentNode> getSegmentsInRange(double minX, double minY, double maxX, double maxY) {
+        return this.getSpatialIndex().search(minX, minY, maxX, maxY);
     }
 
     /**
      * Accept the call to be visited by calling the appropriate visit method for this ComponentNode
      */
     @Override
-    public Object accept(ComponentNodeVisitor visitor, Object o) {
+    public <R, A> R accept(ComponentNodeVisitor<R, A> visitor, A o) {
     	return visitor.visitSegmentDatabaseNode(this, o);
     }
     
+    /**
+     * Returns a read-only copy of this database in compressed sparse row form, which
+     * needs a fraction of the memory of the hash-based adjacency lists. Points are
+     * numbered in the order the adjacency lists are stored.
+     */
+    public FrozenSegmentNodeDatabase freeze() {
+        return new FrozenSegmentNodeDatabase(this, null);
+    }
+
+    /**
+     * Returns a read-only copy of this database in compressed sparse row form.
+     * Points are numbered in the order of the specified PointNodeDatabase, followed by
+     * any segment endpoints that are not in it.
+     *
+     * @param points the database that numbers the points
+     */
+    public FrozenSegmentNodeDatabase freeze(PointNodeDatabase points) {
+        return new FrozenSegmentNodeDatabase(this, points);
+    }
+
+    /**
+     * @param p a point
+     * @return a read-only view of the points p shares a segment with; empty if there are none
+     */
+    public Set<PointNode> getNeighbors(PointNode p) {
+        Set<PointNode> adjList = this._adjLists.get(p);
+        return adjList == null ? Collections.emptySet() : Collections.unmodifiableSet(adjList);
+    }
+
     /**
      * Generate an entry set of adjacency lists.
      */
@@ -130,18 +299,189 @@ public class SegmentNodeDatabase implements ComponentNode {
     /**
      * Returns a copy of the database as a unique entry set
      * (This excludes redundant segments; no AB and BA--one or the other)
+     * Prefer uniqueAdjacencyLists(), which gives the same lists without copying them.
      * @return
      */
     public Set<Entry<PointNode, Set<PointNode>>> uniqueEntrySet() {
-        SegmentNodeDatabase db  = new SegmentNodeDatabase();
-        
-        // loop through all unique SegmentNodes in the database
-        for (SegmentNode segment: this.asUniqueSegmentList()) {
-        	// only add this specific segment to the temp database
-            db.addDirectedEdge(segment.getPoint1(), segment.getPoint2());
+        Map<PointNode, Set<PointNode>> unique = new LinkedHashMap<>();
+
+        for (Entry<PointNode, Iterable<PointNode>> entry : this.uniqueAdjacencyLists()) {
+            Set<PointNode> adjList = new LinkedHashSet<>();
+            for (PointNode b : entry.getValue()) {
+                adjList.add(b);
+            }
+            unique.put(entry.getKey(), adjList);
+        }
+
+        return unique.entrySet();
+    }
+
+    /**
+     * Returns a view of the adjacency lists in which every segment appears exactly once
+     * (no AB and BA--one or the other). Each segment is listed under its canonical
+     * endpoint (see isCanonical), and points with nothing listed under them are skipped.
+     * <p>
+     * The view is computed while iterating, so no segments or lists are copied; it
+     * reflects the database as it is when iterated. Its spliterator splits wherever the
+     * spliterator of entrySet() does, so the view can be traversed in parallel.
+     */
+    public Iterable<Entry<PointNode, Iterable<PointNode>>> uniqueAdjacencyLists() {
+        return new Iterable<Entry<PointNode, Iterable<PointNode>>>() {
+            @Override
+            public Iterator<Entry<PointNode, Iterable<PointNode>>> iterator() {
+                return new UniqueAdjacencyIterator(entrySet().iterator());
+            }
+
+            @Override
+            public Spliterator<Entry<PointNode, Iterable<PointNode>>> spliterator() {
+                return new UniqueAdjacencySpliterator(entrySet().spliterator());
+            }
+        };
+    }
+
+    /**
+     * Decides which endpoint a segment is listed under when each segment is listed once:
+     * the one with the larger x coordinate, or with the larger y coordinate when the x
+     * coordinates are the same. A self-loop is listed under its only point.
+     *
+     * @param a the point the segment would be listed under
+     * @param b the other endpoint
+     * @return true if segment AB is listed under a
+     */
+    public static boolean isCanonical(PointNode a, PointNode b) {
+        int cmp = Double.compare(a.getX(), b.getX());
+        if (cmp == 0) cmp = Double.compare(a.getY(), b.getY());
+        return cmp >= 0;
+    }
+
+    /**
+     * @return the point of the entry with the neighbors it is the canonical endpoint for,
+     * or null if there are none
+     */
+    private static Entry<PointNode, Iterable<PointNode>> canonicalEntry(Entry<PointNode, Set<PointNode>> entry) {
+        PointNode a = entry.getKey();
+        Set<PointNode> adjList = entry.getValue();
+        for (PointNode b : adjList) {
+            if (isCanonical(a, b)) {
+                Iterable<PointNode> canonical = () -> new CanonicalNeighborIterator(a, adjList.iterator());
+                return new AbstractMap.SimpleImmutableEntry<>(a, canonical);
+            }
         }
-        
-        return db.entrySet();
+        return null;
     }
 
+    /**
+     * Walks the adjacency lists once, yielding for each point the neighbors it is the
+     * canonical endpoint for.
+     */
+    private static class UniqueAdjacencyIterator implements Iterator<Entry<PointNode, Iterable<PointNode>>> {
+        private final Iterator<Entry<PointNode, Set<PointNode>>> _entries;
+        private Entry<PointNode, Iterable<PointNode>> _next;
+
+        UniqueAdjacencyIterator(Iterator<Entry<PointNode, Set<PointNode>>> entries) {
+            _entries = entries;
+            _next = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _next != null;
+        }
+
+        @Override
+        public Entry<PointNode, Iterable<PointNode>> next() {
+            if (_next == null) throw new NoSuchElementException();
+
+            Entry<PointNode, Iterable<PointNode>> entry = _next;
+            _next = advance();
+            return entry;
+        }
+
+        private Entry<PointNode, Iterable<PointNode>> advance() {
+            while (_entries.hasNext()) {
+                Entry<PointNode, Iterable<PointNode>> entry = canonicalEntry(_entries.next());
+                if (entry != null) return entry;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Splits the adjacency lists as the spliterator of entrySet() does, yielding for each
+     * point the neighbors it is the canonical endpoint for.
+     */
+    private static class UniqueAdjacencySpliterator implements Spliterator<Entry<PointNode, Iterable<PointNode>>> {
+        private final Spliterator<Entry<PointNode, Set<PointNode>>> _entries;
+        private Entry<PointNode, Iterable<PointNode>> _found;
+
+        UniqueAdjacencySpliterator(Spliterator<Entry<PointNode, Set<PointNode>>> entries) {
+            _entries = entries;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<PointNode, Iterable<PointNode>>> action) {
+            // skip points with nothing listed under them
+            _found = null;
+            do {
+                if (!_entries.tryAdvance(entry -> _found = canonicalEntry(entry))) return false;
+            } while (_found == null);
+
+            action.accept(_found);
+            return true;
+        }
+
+        @Override
+        public Spliterator<Entry<PointNode, Iterable<PointNode>>> trySplit() {
+            Spliterator<Entry<PointNode, Set<PointNode>>> prefix = _entries.trySplit();
+            return prefix == null ? null : new UniqueAdjacencySpliterator(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            // an upper bound: some points may have nothing listed under them
+            return _entries.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return _entries.characteristics() & (ORDERED | NONNULL | CONCURRENT | IMMUTABLE);
+        }
+    }
+
+    /**
+     * Yields the neighbors of a point that it is the canonical endpoint for.
+     */
+    private static class CanonicalNeighborIterator implements Iterator<PointNode> {
+        private final PointNode _a;
+        private final Iterator<PointNode> _neighbors;
+        private PointNode _next;
+
+        CanonicalNeighborIterator(PointNode a, Iterator<PointNode> neighbors) {
+            _a = a;
+            _neighbors = neighbors;
+            _next = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _next != null;
+        }
+
+        @Override
+        public PointNode next() {
+            if (_next == null) throw new NoSuchElementException();
+
+            PointNode b = _next;
+            _next = advance();
+            return b;
+        }
+
+        private PointNode advance() {
+            while (_neighbors.hasNext()) {
+                PointNode b = _neighbors.next();
+                if (isCanonical(_a, b)) return b;
+            }
+            return null;
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package input.parser;
+
+import input.builder.DefaultBuilder;
+import input.components.ComponentNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNodeDatabase;
+import input.exception.ParseException;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads figures in the binary format described by Binary_Constants, as written by
+ * BinaryWriterVisitor. Like JSONParser, every node is created through the builder, so
+ * a DefaultBuilder checks a file without building anything.
+ * <p>
+ * Values are read with absolute gets straight from the buffer; a file is mapped rather
+ * than read, so nothing but the point names is copied onto the heap.
+ */
+public class BinaryParser {
+    protected DefaultBuilder _builder;
+
+    // reused to decode every string
+    protected byte[] _bytes;
+
+    public BinaryParser(DefaultBuilder builder) {
+        _builder = builder;
+        _bytes = new byte[64];
+    }
+
+    private void error(String message) {
+        throw new ParseException("Parse error: " + message);
+    }
+
+    /**
+     * Parses the binary figure file at the specified path by mapping it into memory.
+     *
+     * @param path - the binary figure file
+     * @return - a FigureNode representing the file
+     * @throws ParseException if the file cannot be read or is not a valid figure
+     */
+    public ComponentNode parse(Path path) throws ParseException {
+        try (FileChannel channel = FileChannel.open(path)) {
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new ParseException("Parse error: could not read " + path, e);
+        }
+    }
+
+    /**
+     * Parses one binary figure starting at the buffer's position, and leaves the position
+     * just after it so that figures written one after another can be read in turn.
+     *
+     * @param buffer - the binary figure
+     * @return - a FigureNode representing the figure
+     * @throws ParseException if the buffer does not hold a valid figure
+     */
+    public ComponentNode parse(ByteBuffer buffer) throws ParseException {
+        try {
+            return parseFigure(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new ParseException("Parse error: binary figure is truncated", e);
+        }
+    }
+
+    private ComponentNode parseFigure(ByteBuffer buffer) {
+        int start = buffer.position();
+
+        if (buffer.getInt(start) != Binary_Constants.MAGIC) error("not a binary figure");
+        short version = buffer.getShort(start + 4);
+        if (version != Binary_Constants.VERSION) error("unsupported binary figure version " + version);
+        int at = start + 8;
+
+        int numStrings = buffer.getInt(at);
+        if (numStrings < 0 || numStrings > (buffer.limit() - at) / Integer.BYTES) error("bad string count " + numStrings);
+        at += Integer.BYTES;
+        String[] strings = new String[numStrings];
+        for (int i = 0; i < numStrings; i++) {
+            int length = buffer.getInt(at);
+            strings[i] = string(buffer, at + Integer.BYTES, length);
+            at += Integer.BYTES + length;
+        }
+
+        String description = lookup(strings, buffer.getInt(at), true);
+        at += Integer.BYTES;
+
+        int numPoints = buffer.getInt(at);
+        // each point takes a name index and two coordinates
+        long pointBytes = (long) numPoints * (Integer.BYTES + 2 * Double.BYTES);
+        if (numPoints < 0 || pointBytes > buffer.limit() - at) error("bad point count " + numPoints);
+        at += Integer.BYTES;
+        int names = at;
+        at += numPoints * Integer.BYTES;
+        at += (Double.BYTES - (at - start) % Double.BYTES) % Double.BYTES;
+
+        List<PointNode> pointList = new ArrayList<>(numPoints);
+        for (int i = 0; i < numPoints; i++) {
+            String name = lookup(strings, buffer.getInt(names + i * Integer.BYTES), false);
+            double x = buffer.getDouble(at);
+            double y = buffer.getDouble(at + Double.BYTES);
+            at += 2 * Double.BYTES;
+
+            pointList.add(_builder.buildPointNode(name, x, y));
+        }
+
+        PointNodeDatabase pointData = null;
+        try {
+            pointData = _builder.buildPointDatabaseNode(pointList);
+        } catch (IllegalArgumentException e) {
+            error(e.getMessage());
+        }
+
+        // segments join the points the database holds, as in JSONParser; the builder may
+        // have merged equal points or replaced them
+        PointNode[] endpoints = new PointNode[numPoints];
+        for (int i = 0; i < numPoints; i++) {
+            endpoints[i] = pointData == null ? null : pointData.getPoint(pointList.get(i));
+        }
+
+        int offsets = at;
+        int targets = offsets + (numPoints + 1) * Integer.BYTES;
+        SegmentNodeDatabase segmentData = _builder.buildSegmentNodeDatabase();
+
+        int previous = buffer.getInt(offsets);
+        for (int i = 0; i < numPoints; i++) {
+            int next = buffer.getInt(offsets + (i + 1) * Integer.BYTES);
+            if (next < previous) error("adjacency offsets out of order");
+
+            for (int k = previous; k < next; k++) {
+                int target = buffer.getInt(targets + k * Integer.BYTES);
+                if (target < 0 || target >= numPoints) error("segment endpoint " + target + " out of range");
+
+                _builder.addSegmentToDatabase(segmentData, endpoints[i], endpoints[target]);
+            }
+            previous = next;
+        }
+
+        buffer.position(targets + previous * Integer.BYTES);
+
+        return _builder.buildFigureNode(description, pointData, segmentData);
+    }
+
+    private String string(ByteBuffer buffer, int at, int length) {
+        if (length < 0 || length > buffer.limit() - at) error("bad string length " + length);
+        if (length > _bytes.length) _bytes = new byte[Math.max(length, 2 * _bytes.length)];
+
+        buffer.get(at, _bytes, 0, length);
+        return new String(_bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String lookup(String[] strings, int index, boolean optional) {
+        if (optional && index == Binary_Constants.NO_STRING) return null;
+        if (index < 0 || index >= strings.length) error("string index " + index + " out of range");
+        return strings[index];
+    }
+}
@@ -0,0 +1,29 @@
+package input.parser;
+
+/**
+ * Layout of the binary figure format that BinaryWriterVisitor writes and BinaryParser
+ * reads. All values are big-endian:
+ * <pre>
+ * int     MAGIC
+ * short   VERSION
+ * short   0 (reserved)
+ * int     number of strings, then for each: int byte length, UTF-8 bytes
+ * int     string index of the description, -1 if there is none
+ * int     number of points n
+ * int[n]  string index of each point's name
+ *         zero padding to a multiple of 8 bytes from the start of the figure
+ * double[2n] x and y of each point
+ * int[n+1]   CSR offsets: point i's neighbors are targets[offsets[i] .. offsets[i+1]-1]
+ * int[]      CSR targets, as point indices
+ * </pre>
+ * Each segment is listed once, under its canonical endpoint (see
+ * SegmentNodeDatabase.isCanonical). Equal strings share one table entry.
+ */
+public class Binary_Constants {
+    // "GFIG"
+    public static final int MAGIC = 0x47464947;
+
+    public static final short VERSION = 1;
+
+    public static final int NO_STRING = -1;
+}
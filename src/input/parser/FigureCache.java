@@ -0,0 +1,288 @@
+package input.parser;
+
+import input.builder.DefaultBuilder;
+import input.builder.GeometryBuilder;
+import input.components.ComponentNode;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.exception.ParseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Loads JSON figure files, keeping the parsed figures so that loading an unchanged file
+ * again does not parse it again.
+ * <p>
+ * Figures are stored under the SHA-256 digest of the file content. For each path the
+ * cache remembers the modification time and size it last saw along with the digest: if
+ * neither has changed the file is not even read. Otherwise it is read and hashed, and
+ * a file whose content is unchanged (or is the same as another cached file) is still a
+ * hit. A write that keeps both the size and the modification time is not noticed.
+ * <p>
+ * The least recently used figures are evicted once there are more than maxEntries, or
+ * their estimated heap size exceeds maxBytes. Figures are frozen before they are
+ * cached, so the same instance can be handed to every caller.
+ * <p>
+ * All methods are thread-safe. Parsing happens outside the lock, so two threads loading
+ * the same new file at once may both parse it.
+ */
+public class FigureCache {
+    /**
+     * A snapshot of the cache counters.
+     */
+    public static class Stats {
+        protected final long _hits;
+        protected final long _misses;
+        protected final long _evictions;
+
+        protected Stats(long hits, long misses, long evictions) {
+            _hits = hits;
+            _misses = misses;
+            _evictions = evictions;
+        }
+
+        public long getHitCount() {
+            return _hits;
+        }
+
+        public long getMissCount() {
+            return _misses;
+        }
+
+        public long getEvictionCount() {
+            return _evictions;
+        }
+
+        /**
+         * @return the fraction of loads that were hits, or 1 if there have been none
+         */
+        public double getHitRate() {
+            long total = _hits + _misses;
+            return total == 0 ? 1.0 : (double) _hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits %d, misses %d, evictions %d", _hits, _misses, _evictions);
+        }
+    }
+
+    // what was last seen at a path
+    private static class FileState {
+        private final long _modified;
+        private final long _size;
+        private final String _digest;
+
+        private FileState(long modified, long size, String digest) {
+            _modified = modified;
+            _size = size;
+            _digest = digest;
+        }
+    }
+
+    private static class Entry {
+        private final FigureNode _figure;
+        private final long _bytes;
+
+        private Entry(FigureNode figure, long bytes) {
+            _figure = figure;
+            _bytes = bytes;
+        }
+    }
+
+    protected final int _maxEntries;
+    protected final long _maxBytes;
+    protected final Supplier<? extends DefaultBuilder> _builders;
+
+    // figures by content digest, least recently used first
+    protected final LinkedHashMap<String, Entry> _figures;
+    protected final Map<Path, FileState> _files;
+    protected long _bytes;
+
+    protected long _hits;
+    protected long _misses;
+    protected long _evictions;
+
+    /**
+     * @param maxEntries -- most figures to keep
+     * @param maxBytes   -- most estimated heap bytes of figures to keep
+     */
+    public FigureCache(int maxEntries, long maxBytes) {
+        this(maxEntries, maxBytes, GeometryBuilder::new);
+    }
+
+    /**
+     * @param maxEntries -- most figures to keep
+     * @param maxBytes   -- most estimated heap bytes of figures to keep
+     * @param builders   -- supplies a builder for each file parsed; it must build FigureNodes
+     */
+    public FigureCache(int maxEntries, long maxBytes, Supplier<? extends DefaultBuilder> builders) {
+        if (maxEntries < 0 || maxBytes < 0) throw new IllegalArgumentException("Cache bounds must not be negative");
+
+        _maxEntries = maxEntries;
+        _maxBytes = maxBytes;
+        _builders = builders;
+        _figures = new LinkedHashMap<>(16, 0.75f, true);
+        _files = new HashMap<>();
+    }
+
+    /**
+     * Returns the figure in the JSON file at the specified path, parsing it only if it
+     * is not cached.
+     *
+     * @param path - the JSON file
+     * @return - a frozen FigureNode representing the file
+     * @throws ParseException if the file cannot be read or is not a valid figure
+     */
+    public FigureNode load(Path path) throws ParseException {
+        Path key = path.toAbsolutePath().normalize();
+
+        byte[] content;
+        FileState state;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+            long modified = attributes.lastModifiedTime().toMillis();
+
+            synchronized (this) {
+                FileState seen = _files.get(key);
+                if (seen != null && seen._modified == modified && seen._size == attributes.size()) {
+                    Entry entry = _figures.get(seen._digest);
+                    if (entry != null) {
+                        _hits++;
+                        return entry._figure;
+                    }
+                }
+            }
+
+            content = Files.readAllBytes(key);
+            state = new FileState(modified, content.length, digest(content));
+        } catch (IOException e) {
+            throw new ParseException("Parse error: could not read " + path, e);
+        }
+
+        synchronized (this) {
+            _files.put(key, state);
+            Entry entry = _figures.get(state._digest);
+            if (entry != null) {
+                _hits++;
+                return entry._figure;
+            }
+            _misses++;
+        }
+
+        FigureNode figure = parse(content);
+
+        synchronized (this) {
+            // another thread may have parsed the same content meanwhile
+            Entry entry = _figures.get(state._digest);
+            if (entry != null) return entry._figure;
+
+            store(state._digest, new Entry(figure, estimateBytes(figure)));
+        }
+        return figure;
+    }
+
+    private FigureNode parse(byte[] content) {
+        ComponentNode node = new JSONParser(_builders.get()).parse(new ByteArrayInputStream(content));
+        if (!(node instanceof FigureNode)) throw new ParseException("Parse error: the builder did not build a FigureNode");
+
+        return ((FigureNode) node).freeze();
+    }
+
+    private void store(String digest, Entry entry) {
+        // a figure too large for the cache on its own is returned but not kept
+        if (entry._bytes > _maxBytes || _maxEntries == 0) return;
+
+        _figures.put(digest, entry);
+        _bytes += entry._bytes;
+
+        Iterator<Map.Entry<String, Entry>> eldest = _figures.entrySet().iterator();
+        while (_figures.size() > _maxEntries || _bytes > _maxBytes) {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            _bytes -= evicted._bytes;
+            _evictions++;
+        }
+
+        if (_files.size() > 2 * Math.max(_figures.size(), 16)) pruneFiles();
+    }
+
+    /**
+     * Forgets paths whose figures have been evicted, so the path table stays in
+     * proportion to the cache.
+     */
+    private void pruneFiles() {
+        Set<String> live = new HashSet<>(_figures.keySet());
+        _files.values().removeIf(state -> !live.contains(state._digest));
+    }
+
+    private static String digest(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder sb = new StringBuilder(2 * hash.length);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A rough count of the heap a figure takes: the point objects and their names, and
+     * two adjacency entries per segment.
+     */
+    protected static long estimateBytes(FigureNode figure) {
+        long bytes = 256 + 2L * (figure.getDescription() == null ? 0 : figure.getDescription().length());
+        for (PointNode point : figure.getPointsDatabase().getPoints()) {
+            bytes += 96 + 2L * point.getName().length();
+        }
+        bytes += 2L * 16 * figure.getSegments().numUndirectedEdges();
+        return bytes;
+    }
+
+    /**
+     * @return the hit, miss and eviction counts so far
+     */
+    public synchronized Stats getStats() {
+        return new Stats(_hits, _misses, _evictions);
+    }
+
+    /**
+     * @return the number of figures cached
+     */
+    public synchronized int size() {
+        return _figures.size();
+    }
+
+    /**
+     * @return the estimated heap bytes of the figures cached
+     */
+    public synchronized long estimatedBytes() {
+        return _bytes;
+    }
+
+    /**
+     * Removes every figure; the statistics are kept.
+     */
+    public synchronized void clear() {
+        _figures.clear();
+        _files.clear();
+        _bytes = 0;
+    }
+}
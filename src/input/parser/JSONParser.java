@@ -13,10 +13,23 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 
+import utilities.io.CommentFilterReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 
 /**
  * A JSONParser is used to create a FigureNode representation of any JSON file of this format:
@@ -37,12 +50,27 @@ import java.util.Map;
 public class JSONParser {
     protected ComponentNode _astRoot;
     protected DefaultBuilder _builder;
+    // null when the parser was given a single builder
+    protected Supplier<? extends DefaultBuilder> _builders;
 
     /**
      * Create a JSONParser object that initializes the instance variables.
+     * The builder is shared by every figure this parser builds, so parseAll
+     * builds the figures one at a time on the calling thread.
      */
     public JSONParser(DefaultBuilder builder) {
         _builder = builder;
+        _builders = null;
+        _astRoot = null;
+    }
+
+    /**
+     * Create a JSONParser object that asks the supplier for a new builder for each
+     * figure built by parseAll, so builders that keep state are never shared between threads.
+     */
+    public JSONParser(Supplier<? extends DefaultBuilder> builders) {
+        _builders = builders;
+        _builder = builders.get();
         _astRoot = null;
     }
 
@@ -73,8 +101,66 @@ public class JSONParser {
         JSONTokener tokenizer = new JSONTokener(str);
         JSONObject root = new JSONObject(tokenizer);
 
-        JSONObject figure = getFigure(root);
+        return buildFigure(getFigure(root));
+    }
+
+    /**
+     * Parses a JSON document holding many figures. The document is either a "Figures"
+     * array of figure objects (each with a description, points array and segments array
+     * as in parse(String)) or a single "Figure", which yields a list of one.
+     * <p>
+     * The text is tokenized once. A parser made with JSONParser(Supplier) then builds
+     * the figures in parallel on the common fork-join pool, each with its own builder;
+     * a parser made with a single builder builds them one at a time with that builder.
+     *
+     * @param str - the JSON file
+     * @return - the FigureNodes in document order
+     * @throws ParseException
+     */
+    public List<FigureNode> parseAll(String str) throws ParseException {
+        return parseAll(str, ForkJoinPool.commonPool());
+    }
 
+    /**
+     * Parses a JSON document holding many figures, building the figures on the specified
+     * pool; a parser made with a single builder does not use the pool.
+     *
+     * @param str - the JSON file
+     * @param pool - pool to build the figures on
+     * @return - the FigureNodes in document order
+     * @throws ParseException
+     * @see #parseAll(String)
+     */
+    public List<FigureNode> parseAll(String str, ForkJoinPool pool) throws ParseException {
+        JSONTokener tokenizer = new JSONTokener(str);
+        JSONObject root = new JSONObject(tokenizer);
+
+        List<JSONObject> figures = getFigureList(root);
+
+        if (_builders == null) {
+            List<FigureNode> list = new ArrayList<>(figures.size());
+            for (JSONObject figure : figures) {
+                list.add(buildFigure(figure));
+            }
+            return list;
+        }
+
+        List<ForkJoinTask<FigureNode>> tasks = new ArrayList<>(figures.size());
+        for (JSONObject figure : figures) {
+            tasks.add(pool.submit(() -> new JSONParser(_builders).buildFigure(figure)));
+        }
+
+        List<FigureNode> list = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<FigureNode> task : tasks) {
+            list.add(task.join());
+        }
+        return list;
+    }
+
+    /**
+     * Builds a FigureNode from the JSONObject holding a description, points and segments.
+     */
+    private FigureNode buildFigure(JSONObject figure) {
         String description = getDescription(figure);
 
         JSONArray points = getPoints(figure);
@@ -88,6 +174,53 @@ public class JSONParser {
         return _builder.buildFigureNode(description, pointData, segmentData);
     }
 
+    /**
+     * Parses a JSON figure as it is read from the specified Reader. Unlike parse(String),
+     * no org.json tree is built: each point and adjacency list is passed to the builder
+     * as soon as it has been read. The result is the same FigureNode parse(String)
+     * produces for the same text.
+     *
+     * @param in - the JSON text; it is read to the end but not closed
+     * @return - a FigureNode representing the JSON text
+     * @throws ParseException
+     */
+    public ComponentNode parse(Reader in) throws ParseException {
+        return new JSONStreamParser(_builder).parse(in);
+    }
+
+    /**
+     * Parses UTF-8 encoded JSON figure text as it is read from the specified stream.
+     * '//' comments are filtered out while reading, as FileUtilities.readFileFilterComments
+     * would, so the text never has to be copied into a String first.
+     *
+     * @param in - the JSON text; it is read to the end but not closed
+     * @return - a FigureNode representing the JSON text
+     * @throws ParseException
+     * @see #parse(Reader)
+     */
+    public ComponentNode parse(InputStream in) throws ParseException {
+        return parse(new CommentFilterReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Parses the UTF-8 encoded JSON figure file at the specified path. The file is decoded
+     * from a FileChannel in buffer-sized chunks and '//' comments are filtered out while
+     * reading, so memory use does not grow with the size of the file.
+     *
+     * @param path - the JSON file
+     * @return - a FigureNode representing the JSON file
+     * @throws ParseException if the file cannot be read or is not a valid figure
+     * @see #parse(Reader)
+     */
+    public ComponentNode parse(Path path) throws ParseException {
+        try (FileChannel channel = FileChannel.open(path);
+             Reader in = new CommentFilterReader(Channels.newReader(channel, StandardCharsets.UTF_8))) {
+            return parse(in);
+        } catch (IOException e) {
+            throw new ParseException("Parse error: could not read " + path, e);
+        }
+    }
+
     /**
      * Creates a SegmentNodeDatabase that represents the adjacency lists of the segments.
      * @param segments - JSONArray of adjacency lists for each segment
@@ -138,7 +271,13 @@ public class JSONParser {
     private PointNodeDatabase getPointNodeDatabase(JSONArray points) {
         List<PointNode> list = buildPoints(points);
 
-        return _builder.buildPointDatabaseNode(list);
+        try {
+            return _builder.buildPointDatabaseNode(list);
+        } catch (IllegalArgumentException e) {
+            error(e.getMessage());
+        }
+
+        return null;
     }
 
     /**
@@ -177,6 +316,28 @@ public class JSONParser {
         return getObject(JSON_Constants.JSON_FIGURE, obj);
     }
 
+    /**
+     * @return the figure objects of a document with either a "Figures" array or a single "Figure"
+     */
+    private List<JSONObject> getFigureList(JSONObject obj) {
+        List<JSONObject> list = new ArrayList<>();
+
+        if (!obj.has(JSON_Constants.JSON_FIGURE_S)) {
+            list.add(getFigure(obj));
+            return list;
+        }
+
+        JSONArray figures = getArray(JSON_Constants.JSON_FIGURE_S, obj);
+        for (int i = 0; i < figures.length(); i++) {
+            try {
+                list.add(figures.getJSONObject(i));
+            } catch (JSONException e) {
+                error(String.format("Entry %d of \"%s\" is not a JSONObject", i, JSON_Constants.JSON_FIGURE_S));
+            }
+        }
+        return list;
+    }
+
     private String getDescription(JSONObject obj) {
         return getString(JSON_Constants.JSON_DESCRIPTION, obj);
     }
@@ -0,0 +1,291 @@
+package input.parser;
+
+import input.builder.DefaultBuilder;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNode;
+import input.components.segment.SegmentNodeDatabase;
+import input.exception.ParseException;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a JSON patch to a FigureNode in place, so an edited figure does not have to be
+ * parsed again as a whole. A patch document looks like this, and every array is optional:
+ * <pre>
+ * { "Patch" : {
+ *     "RemoveSegments" : [ { "A" : [ "B" ] } ],
+ *     "RemovePoints"   : [ "D" ],
+ *     "Points"         : [ { "name" : "E", "x" : 1, "y" : 2 } ],
+ *     "Segments"       : [ { "E" : [ "A", "C" ] } ]
+ * } }
+ * </pre>
+ * The sections are applied in that order. Removing a point also removes its segments.
+ * Names are looked up among the points the patch adds first, then among the figure's.
+ * <p>
+ * Every name is resolved before the figure is changed, so a patch that names an unknown
+ * point, or a point it removes, changes nothing. The work done is proportional to the
+ * size of the patch and the segments of the points it removes.
+ * <p>
+ * Points and segments are changed through the builder's add and remove hooks; a builder
+ * whose buildPointNode returns null adds no points, and skips segments ending at them.
+ */
+public class JSONPatchParser {
+    /**
+     * What a patch changed. Points and segments the patch named but the figure already
+     * held, or did not hold, are not listed.
+     */
+    public static class Changes {
+        protected final List<PointNode> _addedPoints = new ArrayList<>();
+        protected final List<PointNode> _removedPoints = new ArrayList<>();
+        protected final List<SegmentNode> _addedSegments = new ArrayList<>();
+        protected final List<SegmentNode> _removedSegments = new ArrayList<>();
+
+        public List<PointNode> getAddedPoints() {
+            return Collections.unmodifiableList(_addedPoints);
+        }
+
+        public List<PointNode> getRemovedPoints() {
+            return Collections.unmodifiableList(_removedPoints);
+        }
+
+        public List<SegmentNode> getAddedSegments() {
+            return Collections.unmodifiableList(_addedSegments);
+        }
+
+        /**
+         * @return the removed segments, including those of removed points
+         */
+        public List<SegmentNode> getRemovedSegments() {
+            return Collections.unmodifiableList(_removedSegments);
+        }
+
+        public boolean isEmpty() {
+            return _addedPoints.isEmpty() && _removedPoints.isEmpty()
+                    && _addedSegments.isEmpty() && _removedSegments.isEmpty();
+        }
+    }
+
+    protected DefaultBuilder _builder;
+
+    public JSONPatchParser(DefaultBuilder builder) {
+        _builder = builder;
+    }
+
+    private void error(String message) {
+        throw new ParseException("Parse error: " + message);
+    }
+
+    /**
+     * Applies the patch document to the figure.
+     *
+     * @param figure - the figure to change
+     * @param str    - the JSON patch document
+     * @return what the patch changed
+     * @throws ParseException if the document is not a valid patch for the figure
+     * @throws UnsupportedOperationException if the figure is frozen
+     */
+    public Changes apply(FigureNode figure, String str) throws ParseException {
+        if (figure.isFrozen()) throw new UnsupportedOperationException("A frozen FigureNode cannot be patched");
+
+        JSONObject patch = getObject(JSON_Constants.JSON_PATCH, new JSONObject(new JSONTokener(str)));
+        PointNodeDatabase points = figure.getPointsDatabase();
+        SegmentNodeDatabase segments = figure.getSegments();
+
+        // resolve everything first so an invalid patch leaves the figure alone
+        Set<String> removedNames = new HashSet<>();
+        List<PointNode> removedPoints = new ArrayList<>();
+        JSONArray removePoints = getOptionalArray(JSON_Constants.JSON_REMOVE_POINT_S, patch);
+        for (int i = 0; i < removePoints.length(); i++) {
+            String name = getString(removePoints, i);
+            removedNames.add(name);
+            removedPoints.add(existing(name, points));
+        }
+
+        Map<String, PointNode> addedPoints = new LinkedHashMap<>();
+        JSONArray newPoints = getOptionalArray(JSON_Constants.JSON_POINT_S, patch);
+        for (int i = 0; i < newPoints.length(); i++) {
+            JSONObject point = getObject(newPoints, i);
+            String name = getString(JSON_Constants.JSON_NAME, point);
+            double x = getDouble(JSON_Constants.JSON_X, point);
+            double y = getDouble(JSON_Constants.JSON_Y, point);
+
+            if (addedPoints.containsKey(name)) error(String.format("Point \"%s\" is added twice", name));
+            addedPoints.put(name, _builder.buildPointNode(name, x, y));
+        }
+        checkNames(addedPoints.values(), removedNames, points);
+
+        List<PointNode[]> removedSegments = resolveSegments(
+                getOptionalArray(JSON_Constants.JSON_REMOVE_SEGMENTS, patch), Collections.emptyMap(), Collections.emptySet(), points);
+        List<PointNode[]> addedSegments = resolveSegments(
+                getOptionalArray(JSON_Constants.JSON_SEGMENTS, patch), addedPoints, removedNames, points);
+
+        Changes changes = new Changes();
+
+        for (PointNode[] segment : removedSegments) {
+            removeSegment(segments, segment[0], segment[1], changes);
+        }
+
+        for (PointNode point : removedPoints) {
+            for (PointNode neighbor : new ArrayList<>(segments.getNeighbors(point))) {
+                removeSegment(segments, point, neighbor, changes);
+            }
+            if (_builder.removePointFromDatabase(points, point)) changes._removedPoints.add(point);
+        }
+
+        // an added point equal to one already there stands for that one
+        Map<PointNode, PointNode> stored = new IdentityHashMap<>();
+        for (PointNode point : addedPoints.values()) {
+            try {
+                if (_builder.addPointToDatabase(points, point)) changes._addedPoints.add(point);
+            } catch (IllegalArgumentException e) {
+                error(e.getMessage());
+            }
+            if (point != null && points != null) stored.put(point, points.getPoint(point));
+        }
+
+        for (PointNode[] segment : addedSegments) {
+            PointNode from = stored.getOrDefault(segment[0], segment[0]);
+            PointNode to = stored.getOrDefault(segment[1], segment[1]);
+            if (from == null || to == null) continue;
+
+            int before = segments.modificationCount();
+            _builder.addSegmentToDatabase(segments, from, to);
+            if (segments.modificationCount() != before) changes._addedSegments.add(new SegmentNode(from, to));
+        }
+
+        return changes;
+    }
+
+    private void removeSegment(SegmentNodeDatabase segments, PointNode from, PointNode to, Changes changes) {
+        if (_builder.removeSegmentFromDatabase(segments, from, to)) changes._removedSegments.add(new SegmentNode(from, to));
+    }
+
+    /**
+     * @return the endpoint pairs of the adjacency lists in the array
+     */
+    private List<PointNode[]> resolveSegments(JSONArray lists, Map<String, PointNode> added, Set<String> removed,
+                                              PointNodeDatabase points) {
+        List<PointNode[]> segments = new ArrayList<>();
+
+        for (int i = 0; i < lists.length(); i++) {
+            JSONObject list = getObject(lists, i);
+            for (String fromName : list.keySet()) {
+                PointNode from = resolve(fromName, added, removed, points);
+
+                JSONArray adjArray = getArray(fromName, list);
+                for (int k = 0; k < adjArray.length(); k++) {
+                    PointNode to = resolve(getString(adjArray, k), added, removed, points);
+                    segments.add(new PointNode[] { from, to });
+                }
+            }
+        }
+        return segments;
+    }
+
+    private PointNode resolve(String name, Map<String, PointNode> added, Set<String> removed, PointNodeDatabase points) {
+        if (added.containsKey(name)) return added.get(name);
+        if (removed.contains(name)) error(String.format("Point \"%s\" is removed by the same patch", name));
+
+        return existing(name, points);
+    }
+
+    private PointNode existing(String name, PointNodeDatabase points) {
+        PointNode point = points == null ? null : points.getPoint(name);
+        if (point == null) error(String.format("Could not find point \"%s\"", name));
+
+        return point;
+    }
+
+    /**
+     * Under the REJECT policy, a new point may not take the name of a different point
+     * that stays in the figure.
+     */
+    private void checkNames(Collection<PointNode> added, Set<String> removed, PointNodeDatabase points) {
+        if (points == null || points.getNamePolicy() != PointNodeDatabase.NamePolicy.REJECT) return;
+
+        for (PointNode point : added) {
+            if (point == null || removed.contains(point.getName())) continue;
+
+            PointNode named = points.getPoint(point.getName());
+            if (named != null && !named.equals(point)) error("Duplicate point name: " + point.getName());
+        }
+    }
+
+    private JSONObject getObject(String key, JSONObject obj) {
+        try {
+            return obj.getJSONObject(key);
+        } catch (JSONException e) {
+            error(String.format("Could not find JSONObject with key \"%s\"", key));
+        }
+
+        return null;
+    }
+
+    private JSONObject getObject(JSONArray array, int i) {
+        try {
+            return array.getJSONObject(i);
+        } catch (JSONException e) {
+            error(String.format("Entry %d is not a JSONObject", i));
+        }
+
+        return null;
+    }
+
+    private JSONArray getArray(String key, JSONObject obj) {
+        try {
+            return obj.getJSONArray(key);
+        } catch (JSONException e) {
+            error(String.format("Could not find JSONArray with key \"%s\"", key));
+        }
+
+        return null;
+    }
+
+    private JSONArray getOptionalArray(String key, JSONObject obj) {
+        return obj.has(key) ? getArray(key, obj) : new JSONArray();
+    }
+
+    private String getString(String key, JSONObject obj) {
+        try {
+            return obj.getString(key);
+        } catch (JSONException e) {
+            error(String.format("Could not find string with key \"%s\"", key));
+        }
+
+        return null;
+    }
+
+    private String getString(JSONArray array, int i) {
+        try {
+            return array.getString(i);
+        } catch (JSONException e) {
+            error(String.format("Entry %d is not a string", i));
+        }
+
+        return null;
+    }
+
+    private double getDouble(String key, JSONObject obj) {
+        try {
+            return obj.getDouble(key);
+        } catch (JSONException e) {
+            error(String.format("Could not find number with key \"%s\"", key));
+        }
+
+        return 0;
+    }
+}
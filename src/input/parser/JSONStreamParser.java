@@ -0,0 +1,226 @@
+package input.parser;
+
+import input.builder.DefaultBuilder;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNodeDatabase;
+import input.exception.ParseException;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses a figure straight from a character stream. Points and segments are handed to
+ * the builder as soon as their tokens have been read instead of first building an
+ * org.json tree of the whole document, so the result is the same FigureNode that
+ * JSONParser.parse(String) produces.
+ */
+class JSONStreamParser {
+    protected DefaultBuilder _builder;
+
+    JSONStreamParser(DefaultBuilder builder) {
+        _builder = builder;
+    }
+
+    /**
+     * @param in - the JSON text of a figure document
+     * @return a FigureNode representing the document
+     */
+    FigureNode parse(Reader in) {
+        JSONStreamReader reader = new JSONStreamReader(in);
+        FigureNode figure = null;
+        boolean found = false;
+
+        reader.expect('{');
+        if (!reader.consumeIf('}')) {
+            do {
+                String key = reader.nextString();
+                reader.expect(':');
+
+                if (key.equals(JSON_Constants.JSON_FIGURE) && reader.peek() == '{') {
+                    figure = parseFigure(reader);
+                    found = true;
+                } else {
+                    reader.skipValue();
+                }
+            } while (reader.consumeIf(','));
+        }
+        reader.expect('}');
+        reader.expectEnd();
+
+        if (!found) missing("JSONObject", JSON_Constants.JSON_FIGURE);
+
+        return figure;
+    }
+
+    private FigureNode parseFigure(JSONStreamReader reader) {
+        String description = null;
+        PointNodeDatabase pointData = null;
+        SegmentNodeDatabase segmentData = null;
+        boolean hasPoints = false;
+        boolean hasSegments = false;
+
+        // adjacency lists that appear before the points they refer to, as [from, to, to, ...]
+        List<List<String>> deferred = null;
+
+        reader.expect('{');
+        if (!reader.consumeIf('}')) {
+            do {
+                String key = reader.nextString();
+                reader.expect(':');
+
+                if (key.equals(JSON_Constants.JSON_DESCRIPTION) && reader.atString()) {
+                    description = reader.nextString();
+                } else if (key.equals(JSON_Constants.JSON_POINT_S) && reader.peek() == '[') {
+                    pointData = parsePoints(reader);
+                    hasPoints = true;
+                } else if (key.equals(JSON_Constants.JSON_SEGMENTS) && reader.peek() == '[') {
+                    segmentData = _builder.buildSegmentNodeDatabase();
+                    if (hasPoints) {
+                        parseSegments(reader, segmentData, pointData);
+                    } else {
+                        deferred = parseDeferredSegments(reader);
+                    }
+                    hasSegments = true;
+                } else {
+                    reader.skipValue();
+                }
+            } while (reader.consumeIf(','));
+        }
+        reader.expect('}');
+
+        if (description == null) missing("string", JSON_Constants.JSON_DESCRIPTION);
+        if (!hasPoints) missing("JSONArray", JSON_Constants.JSON_POINT_S);
+        if (!hasSegments) missing("JSONArray", JSON_Constants.JSON_SEGMENTS);
+
+        if (deferred != null) {
+            for (List<String> adjList : deferred) {
+                PointNode from = getPoint(adjList.get(0), pointData);
+
+                for (int i = 1; i < adjList.size(); i++) {
+                    _builder.addSegmentToDatabase(segmentData, from, getPoint(adjList.get(i), pointData));
+                }
+            }
+        }
+
+        return _builder.buildFigureNode(description, pointData, segmentData);
+    }
+
+    private PointNodeDatabase parsePoints(JSONStreamReader reader) {
+        List<PointNode> list = new ArrayList<>();
+
+        reader.expect('[');
+        if (!reader.consumeIf(']')) {
+            do {
+                list.add(parsePoint(reader));
+            } while (reader.consumeIf(','));
+        }
+        reader.expect(']');
+
+        try {
+            return _builder.buildPointDatabaseNode(list);
+        } catch (IllegalArgumentException e) {
+            reader.error(e.getMessage());
+        }
+
+        return null;
+    }
+
+    private PointNode parsePoint(JSONStreamReader reader) {
+        String name = null;
+        double x = 0;
+        double y = 0;
+        boolean hasX = false;
+        boolean hasY = false;
+
+        reader.expect('{');
+        if (!reader.consumeIf('}')) {
+            do {
+                String key = reader.nextString();
+                reader.expect(':');
+
+                if (key.equals(JSON_Constants.JSON_NAME) && reader.atString()) {
+                    name = reader.nextString();
+                } else if (key.equals(JSON_Constants.JSON_X)) {
+                    x = reader.nextDouble();
+                    hasX = true;
+                } else if (key.equals(JSON_Constants.JSON_Y)) {
+                    y = reader.nextDouble();
+                    hasY = true;
+                } else {
+                    reader.skipValue();
+                }
+            } while (reader.consumeIf(','));
+        }
+        reader.expect('}');
+
+        if (name == null) missing("string", JSON_Constants.JSON_NAME);
+        if (!hasX) missing("double", JSON_Constants.JSON_X);
+        if (!hasY) missing("double", JSON_Constants.JSON_Y);
+
+        return _builder.buildPointNode(name, x, y);
+    }
+
+    private void parseSegments(JSONStreamReader reader, SegmentNodeDatabase segmentData, PointNodeDatabase points) {
+        reader.expect('[');
+        if (reader.consumeIf(']')) return;
+
+        do {
+            reader.expect('{');
+            do {
+                PointNode from = getPoint(reader.nextString(), points);
+                reader.expect(':');
+
+                reader.expect('[');
+                if (!reader.consumeIf(']')) {
+                    do {
+                        _builder.addSegmentToDatabase(segmentData, from, getPoint(reader.nextString(), points));
+                    } while (reader.consumeIf(','));
+                    reader.expect(']');
+                }
+            } while (reader.consumeIf(','));
+            reader.expect('}');
+        } while (reader.consumeIf(','));
+        reader.expect(']');
+    }
+
+    private List<List<String>> parseDeferredSegments(JSONStreamReader reader) {
+        List<List<String>> deferred = new ArrayList<>();
+
+        reader.expect('[');
+        if (reader.consumeIf(']')) return deferred;
+
+        do {
+            reader.expect('{');
+            do {
+                List<String> adjList = new ArrayList<>();
+                adjList.add(reader.nextString());
+                reader.expect(':');
+
+                reader.expect('[');
+                if (!reader.consumeIf(']')) {
+                    do {
+                        adjList.add(reader.nextString());
+                    } while (reader.consumeIf(','));
+                    reader.expect(']');
+                }
+                deferred.add(adjList);
+            } while (reader.consumeIf(','));
+            reader.expect('}');
+        } while (reader.consumeIf(','));
+        reader.expect(']');
+
+        return deferred;
+    }
+
+    private PointNode getPoint(String name, PointNodeDatabase db) {
+        if (db == null) return null;
+        return db.getPoint(name);
+    }
+
+    private void missing(String type, String key) {
+        throw new ParseException(String.format("Parse error: Could not find %s with key \"%s\"", type, key));
+    }
+}
@@ -0,0 +1,201 @@
+package input.parser;
+
+import input.exception.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A minimal pull reader over JSON text. Characters are consumed from a Reader through a
+ * fixed-size buffer, so no tree of JSONObjects/JSONArrays is ever built; the caller asks
+ * for exactly the token it expects next.
+ */
+class JSONStreamReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    protected Reader _in;
+    protected char[] _buffer;
+    protected int _pos;
+    protected int _limit;
+    protected long _offset;
+
+    // reused for every string and number token
+    protected StringBuilder _token;
+
+    JSONStreamReader(Reader in) {
+        _in = in;
+        _buffer = new char[BUFFER_SIZE];
+        _pos = 0;
+        _limit = 0;
+        _offset = 0;
+        _token = new StringBuilder();
+    }
+
+    /**
+     * @return the next non-whitespace character without consuming it, or -1 at end of input
+     */
+    int peek() {
+        while (true) {
+            if (_pos == _limit && !fill()) return -1;
+
+            char c = _buffer[_pos];
+            if (!Character.isWhitespace(c)) return c;
+            _pos++;
+        }
+    }
+
+    /**
+     * Consumes the next non-whitespace character if it is c.
+     *
+     * @return true if c was consumed
+     */
+    boolean consumeIf(char c) {
+        if (peek() != c) return false;
+        _pos++;
+        return true;
+    }
+
+    /**
+     * Consumes the next non-whitespace character, which must be c.
+     */
+    void expect(char c) {
+        if (!consumeIf(c)) error(String.format("Expected '%c'", c));
+    }
+
+    /**
+     * @return true if the next token is a string
+     */
+    boolean atString() {
+        return peek() == '"';
+    }
+
+    /**
+     * @return the next token, which must be a string
+     */
+    String nextString() {
+        expect('"');
+        _token.setLength(0);
+
+        while (true) {
+            char c = read();
+            if (c == '"') return _token.toString();
+            if (c != '\\') {
+                _token.append(c);
+                continue;
+            }
+
+            c = read();
+            switch (c) {
+                case 'b': _token.append('\b'); break;
+                case 't': _token.append('\t'); break;
+                case 'n': _token.append('\n'); break;
+                case 'f': _token.append('\f'); break;
+                case 'r': _token.append('\r'); break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(read(), 16);
+                        if (digit < 0) error("Illegal unicode escape");
+                        code = code * 16 + digit;
+                    }
+                    _token.append((char) code);
+                    break;
+                default: _token.append(c);
+            }
+        }
+    }
+
+    /**
+     * @return the next token, which must be a number or a string holding a number
+     */
+    double nextDouble() {
+        String text = atString() ? nextString() : nextLiteral();
+
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            error(String.format("Expected a number but found \"%s\"", text));
+        }
+
+        return 0;
+    }
+
+    /**
+     * Skips over the next value, including any nested objects and arrays.
+     */
+    void skipValue() {
+        int c = peek();
+
+        if (c == '"') {
+            nextString();
+        } else if (c == '{') {
+            expect('{');
+            if (consumeIf('}')) return;
+            do {
+                nextString();
+                expect(':');
+                skipValue();
+            } while (consumeIf(','));
+            expect('}');
+        } else if (c == '[') {
+            expect('[');
+            if (consumeIf(']')) return;
+            do {
+                skipValue();
+            } while (consumeIf(','));
+            expect(']');
+        } else {
+            nextLiteral();
+        }
+    }
+
+    /**
+     * Fails unless only whitespace remains in the input.
+     */
+    void expectEnd() {
+        if (peek() != -1) error("Unexpected text after the end of the document");
+    }
+
+    void error(String message) {
+        throw new ParseException(String.format("Parse error: %s at character %d", message, _offset + _pos));
+    }
+
+    /**
+     * Reads an unquoted token such as a number, true, false or null.
+     */
+    private String nextLiteral() {
+        _token.setLength(0);
+        peek();
+
+        while (_pos < _limit || fill()) {
+            char c = _buffer[_pos];
+            if (c == ',' || c == '}' || c == ']' || c == ':' || Character.isWhitespace(c)) break;
+            _token.append(c);
+            _pos++;
+        }
+
+        if (_token.length() == 0) error("Expected a value");
+        return _token.toString();
+    }
+
+    private char read() {
+        if (_pos == _limit && !fill()) error("Unterminated string");
+        return _buffer[_pos++];
+    }
+
+    private boolean fill() {
+        try {
+            _offset += _limit;
+            _pos = 0;
+            _limit = 0;
+
+            int n = _in.read(_buffer, 0, _buffer.length);
+            if (n <= 0) return false;
+
+            _limit = n;
+            return true;
+        } catch (IOException e) {
+            throw new ParseException("Parse error: could not read input", e);
+        }
+    }
+}
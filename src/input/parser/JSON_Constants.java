@@ -19,6 +19,10 @@ public class JSON_Constants {
 
     public static final String JSON_SEGMENTS = "Segments";
 
+    public static final String JSON_PATCH = "Patch";
+    public static final String JSON_REMOVE_POINT_S = "RemovePoints";
+    public static final String JSON_REMOVE_SEGMENTS = "RemoveSegments";
+
     public static final List<String> TOP_LEVEL_STRINGS = Arrays.asList(JSON_FIGURE_S, JSON_FIGURE);
     public static final JSONArray TOP_LEVEL_JSON_ARRAY = new JSONArray(TOP_LEVEL_STRINGS);
 }
@@ -0,0 +1,172 @@
+package input.visitor;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNode;
+import input.components.segment.SegmentNodeDatabase;
+import input.parser.Binary_Constants;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A visit to a FigureNode using this visitor type writes the figure in the binary format
+ * described by Binary_Constants, which BinaryParser reads back. Points are numbered in
+ * the order of the PointNodeDatabase and segments refer to them by number.
+ * <p>
+ * The format only holds whole figures, so the other visit methods write nothing.
+ * visitFigureNode flushes the stream and returns null; the Object parameter is not used.
+ * I/O errors are thrown as UncheckedIOExceptions.
+ */
+public class BinaryWriterVisitor implements ComponentNodeVisitor<Object, Object> {
+    protected DataOutputStream _out;
+
+    /**
+     * @param out where to write the figures; it is flushed after each figure but not closed
+     */
+    public BinaryWriterVisitor(OutputStream out) {
+        _out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    /**
+     * Writes a FigureNode
+     *
+     * @throws IllegalArgumentException if a segment ends at a point missing from the point database
+     */
+    @Override
+    public Object visitFigureNode(FigureNode node, Object o) {
+        try {
+            writeFigure(node);
+            _out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Dummy implementation, not needed
+     */
+    @Override
+    public Object visitSegmentDatabaseNode(SegmentNodeDatabase node, Object o) {
+        return null;
+    }
+
+    /**
+     * Dummy implementation, not needed
+     */
+    @Override
+    public Object visitSegmentNode(SegmentNode node, Object o) {
+        return null;
+    }
+
+    /**
+     * Dummy implementation, not needed
+     */
+    @Override
+    public Object visitPointNode(PointNode node, Object o) {
+        return null;
+    }
+
+    /**
+     * Dummy implementation, not needed
+     */
+    @Override
+    public Object visitPointNodeDatabase(PointNodeDatabase node, Object o) {
+        return null;
+    }
+
+    private void writeFigure(FigureNode node) throws IOException {
+        List<PointNode> points = new ArrayList<>(node.getPointsDatabase().getPoints());
+
+        Map<PointNode, Integer> ids = new HashMap<>(2 * points.size());
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        int description = node.getDescription() == null ? Binary_Constants.NO_STRING : intern(strings, node.getDescription());
+        int[] names = new int[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            ids.putIfAbsent(points.get(i), i);
+            names[i] = intern(strings, points.get(i).getName());
+        }
+
+        int[][] adjacency = adjacency(node.getSegments(), ids, points.size());
+
+        int start = _out.size();
+        _out.writeInt(Binary_Constants.MAGIC);
+        _out.writeShort(Binary_Constants.VERSION);
+        _out.writeShort(0);
+
+        _out.writeInt(strings.size());
+        for (String s : strings.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            _out.writeInt(bytes.length);
+            _out.write(bytes);
+        }
+        _out.writeInt(description);
+
+        _out.writeInt(points.size());
+        for (int name : names) {
+            _out.writeInt(name);
+        }
+
+        // doubles start on an 8-byte boundary so a mapped file can read them aligned
+        while ((_out.size() - start) % Double.BYTES != 0) _out.writeByte(0);
+        for (PointNode p : points) {
+            _out.writeDouble(p.getX());
+            _out.writeDouble(p.getY());
+        }
+
+        int offset = 0;
+        _out.writeInt(offset);
+        for (int[] neighbors : adjacency) {
+            offset += neighbors.length;
+            _out.writeInt(offset);
+        }
+        for (int[] neighbors : adjacency) {
+            for (int target : neighbors) {
+                _out.writeInt(target);
+            }
+        }
+    }
+
+    private static int intern(Map<String, Integer> strings, String s) {
+        Integer index = strings.putIfAbsent(s, strings.size());
+        return index == null ? strings.size() - 1 : index;
+    }
+
+    /**
+     * @return for each point number, the numbers of its neighbors whose segment it is canonical for
+     */
+    private static int[][] adjacency(SegmentNodeDatabase segments, Map<PointNode, Integer> ids, int n) {
+        List<List<Integer>> lists = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) lists.add(new ArrayList<>(0));
+
+        for (Map.Entry<PointNode, Iterable<PointNode>> entry : segments.uniqueAdjacencyLists()) {
+            List<Integer> list = lists.get(id(ids, entry.getKey()));
+            for (PointNode b : entry.getValue()) {
+                list.add(id(ids, b));
+            }
+        }
+
+        int[][] adjacency = new int[n][];
+        for (int i = 0; i < n; i++) {
+            adjacency[i] = lists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return adjacency;
+    }
+
+    private static int id(Map<PointNode, Integer> ids, PointNode p) {
+        Integer id = ids.get(p);
+        if (id == null) throw new IllegalArgumentException("Segment endpoint is not in the point database: " + p);
+        return id;
+    }
+}
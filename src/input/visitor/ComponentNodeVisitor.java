@@ -12,15 +12,19 @@ import input.components.segment.SegmentNodeDatabase;
 //       Points
 //       Segments
 //
-public interface ComponentNodeVisitor
+// R is the type every visit returns and A the type of the argument threaded through
+// the traversal, so a visitor needs no casts. Visitors that return or take different
+// types per node use ComponentNodeVisitor<Object, Object>.
+//
+public interface ComponentNodeVisitor<R, A>
 {
-	Object visitFigureNode(FigureNode node, Object o);
+	R visitFigureNode(FigureNode node, A o);
 
-	Object visitSegmentDatabaseNode(SegmentNodeDatabase node, Object o);
+	R visitSegmentDatabaseNode(SegmentNodeDatabase node, A o);
 	
-	Object visitSegmentNode(SegmentNode node, Object o);
+	R visitSegmentNode(SegmentNode node, A o);
 	
-	Object visitPointNode(PointNode node, Object o);
+	R visitPointNode(PointNode node, A o);
 
-	Object visitPointNodeDatabase(PointNodeDatabase node, Object o);
+	R visitPointNodeDatabase(PointNodeDatabase node, A o);
 }
\ No newline at end of file
@@ -0,0 +1,289 @@
+package input.visitor;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNode;
+import input.components.segment.SegmentNodeDatabase;
+import input.parser.JSON_Constants;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * A visit to a ComponentNode using this visitor type writes its JSON representation
+ * straight to a Writer, in the format ToJSONvisitor produces and JSONParser reads.
+ * Unlike ToJSONvisitor, no JSONObjects are built: names and numbers are written through
+ * reusable scratch buffers, so memory use does not grow with the size of the figure.
+ * <p>
+ * Every visit method writes its node, flushes the writer and returns null; the
+ * Object parameter is not used. I/O errors are thrown as UncheckedIOExceptions.
+ */
+public class JSONWriterVisitor implements ComponentNodeVisitor<Object, Object> {
+    private static final char[] SPACES = "                                                                ".toCharArray();
+    private static final String INDENT = "  ";
+    private static final long NEGATIVE_ZERO = Double.doubleToRawLongBits(-0.0);
+
+    protected Writer _out;
+    protected boolean _pretty;
+
+    // reused for every number written
+    protected StringBuilder _number;
+    protected char[] _chars;
+
+    /**
+     * @param out    where to write the JSON text; it is flushed after each visit but not closed
+     * @param pretty true to put each value on its own indented line
+     */
+    public JSONWriterVisitor(Writer out, boolean pretty) {
+        _out = out;
+        _pretty = pretty;
+        _number = new StringBuilder(32);
+        _chars = new char[32];
+    }
+
+    /**
+     * @param out    where to write the UTF-8 encoded JSON text; it is flushed after each visit but not closed
+     * @param pretty true to put each value on its own indented line
+     */
+    public JSONWriterVisitor(OutputStream out, boolean pretty) {
+        this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), pretty);
+    }
+
+    /**
+     * Writes the JSON object representing a FigureNode
+     */
+    @Override
+    public Object visitFigureNode(FigureNode node, Object o) {
+        try {
+            writeFigure(node);
+            _out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the JSON array representing a SegmentNodeDatabase
+     */
+    @Override
+    public Object visitSegmentDatabaseNode(SegmentNodeDatabase node, Object o) {
+        try {
+            writeSegments(node, 0);
+            _out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Dummy implementation, not needed
+     */
+    @Override
+    public Object visitSegmentNode(SegmentNode node, Object o) {
+        return null;
+    }
+
+    /**
+     * Writes the JSON object representing a PointNode
+     */
+    @Override
+    public Object visitPointNode(PointNode node, Object o) {
+        try {
+            writePoint(node);
+            _out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the JSON array representing a PointNodeDatabase
+     */
+    @Override
+    public Object visitPointNodeDatabase(PointNodeDatabase node, Object o) {
+        try {
+            writePoints(node, 0);
+            _out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    private void writeFigure(FigureNode node) throws IOException {
+        _out.write('{');
+        newline(1);
+        writeKey(JSON_Constants.JSON_FIGURE);
+        _out.write('{');
+
+        newline(2);
+        writeKey(JSON_Constants.JSON_DESCRIPTION);
+        writeString(node.getDescription());
+        _out.write(',');
+
+        newline(2);
+        writeKey(JSON_Constants.JSON_POINT_S);
+        writePoints(node.getPointsDatabase(), 2);
+        _out.write(',');
+
+        newline(2);
+        writeKey(JSON_Constants.JSON_SEGMENTS);
+        writeSegments(node.getSegments(), 2);
+
+        newline(1);
+        _out.write('}');
+        newline(0);
+        _out.write('}');
+    }
+
+    private void writePoints(PointNodeDatabase node, int level) throws IOException {
+        _out.write('[');
+
+        boolean first = true;
+        for (PointNode point : node.getPoints()) {
+            if (!first) _out.write(',');
+            first = false;
+
+            newline(level + 1);
+            writePoint(point);
+        }
+
+        if (!first) newline(level);
+        _out.write(']');
+    }
+
+    private void writePoint(PointNode node) throws IOException {
+        _out.write('{');
+        space();
+        writeKey(JSON_Constants.JSON_NAME);
+        writeString(node.getName());
+        _out.write(',');
+        space();
+        writeKey(JSON_Constants.JSON_X);
+        writeNumber(node.getX());
+        _out.write(',');
+        space();
+        writeKey(JSON_Constants.JSON_Y);
+        writeNumber(node.getY());
+        space();
+        _out.write('}');
+    }
+
+    private void writeSegments(SegmentNodeDatabase node, int level) throws IOException {
+        _out.write('[');
+
+        // list each segment once (no AB and BA--one or the other)
+        boolean first = true;
+        for (Map.Entry<PointNode, Iterable<PointNode>> entry : node.uniqueAdjacencyLists()) {
+            if (!first) _out.write(',');
+            first = false;
+
+            newline(level + 1);
+            _out.write('{');
+            space();
+            writeKey(entry.getKey().getName());
+            _out.write('[');
+
+            boolean firstPoint = true;
+            for (PointNode b : entry.getValue()) {
+                if (!firstPoint) {
+                    _out.write(',');
+                    space();
+                }
+                firstPoint = false;
+
+                writeString(b.getName());
+            }
+
+            _out.write(']');
+            space();
+            _out.write('}');
+        }
+
+        if (!first) newline(level);
+        _out.write(']');
+    }
+
+    private void writeKey(String key) throws IOException {
+        writeString(key);
+        _out.write(':');
+        space();
+    }
+
+    /**
+     * Writes a quoted string, escaping only the characters JSON requires to be escaped.
+     */
+    private void writeString(String s) throws IOException {
+        _out.write('"');
+
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) continue;
+
+            _out.write(s, start, i - start);
+            start = i + 1;
+
+            _out.write('\\');
+            switch (c) {
+                case '"': _out.write('"'); break;
+                case '\\': _out.write('\\'); break;
+                case '\b': _out.write('b'); break;
+                case '\f': _out.write('f'); break;
+                case '\n': _out.write('n'); break;
+                case '\r': _out.write('r'); break;
+                case '\t': _out.write('t'); break;
+                default:
+                    _out.write('u');
+                    for (int shift = 12; shift >= 0; shift -= 4) {
+                        _out.write(Character.forDigit((c >> shift) & 0xF, 16));
+                    }
+            }
+        }
+
+        _out.write(s, start, s.length() - start);
+        _out.write('"');
+    }
+
+    /**
+     * Writes a number the way org.json does: whole numbers without a trailing ".0".
+     */
+    private void writeNumber(double d) throws IOException {
+        if (Double.isNaN(d) || Double.isInfinite(d)) {
+            throw new IllegalArgumentException("JSON does not allow non-finite numbers");
+        }
+
+        _number.setLength(0);
+        // (long) -0.0 is 0, but org.json keeps the sign
+        if (Double.doubleToRawLongBits(d) == NEGATIVE_ZERO) _number.append("-0");
+        else if (d == (long) d && Math.abs(d) < 1e15) _number.append((long) d);
+        else _number.append(d);
+
+        int length = _number.length();
+        _number.getChars(0, length, _chars, 0);
+        _out.write(_chars, 0, length);
+    }
+
+    private void newline(int level) throws IOException {
+        if (!_pretty) return;
+
+        _out.write('\n');
+        for (int n = level * INDENT.length(); n > 0; n -= SPACES.length) {
+            _out.write(SPACES, 0, Math.min(n, SPACES.length));
+        }
+    }
+
+    private void space() throws IOException {
+        if (_pretty) _out.write(' ');
+    }
+}
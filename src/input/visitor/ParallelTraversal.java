@@ -0,0 +1,144 @@
+package input.visitor;
+
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNode;
+import input.components.segment.SegmentNodeDatabase;
+
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Visits the points of a PointNodeDatabase or the adjacency lists of a SegmentNodeDatabase
+ * in parallel. The collection's spliterator is split into chunks that are visited on the
+ * common fork-join pool; each chunk folds its results into a fresh value from the identity
+ * supplier, and the chunk results are then merged with the combiner.
+ * <p>
+ * Chunks are always merged as combiner(earlier, later), in the order the collection
+ * iterates, so an order-sensitive combiner (such as appending lists) gives the same result
+ * as a sequential traversal. The combiner may modify and return its first argument; the
+ * visit functions must be safe to call from several threads at once.
+ */
+public class ParallelTraversal
+{
+	// chunks estimated at no more than this many elements are visited sequentially
+	private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+	/**
+	 * Visits every point of the database with the visitor.
+	 *
+	 * @param points - database to traverse
+	 * @param visitor - visitor applied to each PointNode
+	 * @param o - argument passed to every visit
+	 * @param identity - creates the starting value of each chunk
+	 * @param combiner - merges two results, earlier first
+	 * @return the merged result of all visits
+	 */
+	public static <R, A> R visitPoints(PointNodeDatabase points, ComponentNodeVisitor<R, A> visitor, A o,
+			                           Supplier<R> identity, BinaryOperator<R> combiner)
+	{
+		return reduce(points.getPoints().spliterator(), identity,
+				      (result, p) -> combiner.apply(result, p.accept(visitor, o)), combiner);
+	}
+
+	/**
+	 * Visits every adjacency list of the database.
+	 *
+	 * @param segments - database to traverse
+	 * @param visit - applied to each point and its neighbors
+	 * @param identity - creates the starting value of each chunk
+	 * @param combiner - merges two results, earlier first
+	 * @return the merged result of all visits
+	 */
+	public static <R> R visitAdjacencyLists(SegmentNodeDatabase segments,
+			                                BiFunction<PointNode, Set<PointNode>, R> visit,
+			                                Supplier<R> identity, BinaryOperator<R> combiner)
+	{
+		return reduce(segments.entrySet().spliterator(), identity,
+				      (result, e) -> combiner.apply(result, visit.apply(e.getKey(), e.getValue())), combiner);
+	}
+
+	/**
+	 * Visits every segment of the database once (no AB and BA--one or the other) with the
+	 * visitor, as a SegmentNode listed under its canonical endpoint.
+	 *
+	 * @param segments - database to traverse
+	 * @param visitor - visitor applied to each SegmentNode
+	 * @param o - argument passed to every visit
+	 * @param identity - creates the starting value of each chunk
+	 * @param combiner - merges two results, earlier first
+	 * @return the merged result of all visits
+	 */
+	public static <R, A> R visitSegments(SegmentNodeDatabase segments, ComponentNodeVisitor<R, A> visitor, A o,
+			                             Supplier<R> identity, BinaryOperator<R> combiner)
+	{
+		return reduce(segments.uniqueAdjacencyLists().spliterator(), identity, (result, entry) -> {
+			for (PointNode b : entry.getValue())
+			{
+				result = combiner.apply(result, visitor.visitSegmentNode(new SegmentNode(entry.getKey(), b), o));
+			}
+			return result;
+		}, combiner);
+	}
+
+	/**
+	 * Folds every element of the spliterator into a result, chunk by chunk, and merges the
+	 * chunk results in encounter order.
+	 *
+	 * @param elements - elements to visit; consumed by the traversal
+	 * @param identity - creates the starting value of each chunk
+	 * @param accumulator - folds one element into the result of its chunk
+	 * @param combiner - merges two chunk results, earlier first
+	 * @return the merged result of all chunks
+	 */
+	public static <T, R> R reduce(Spliterator<T> elements, Supplier<R> identity,
+			                      BiFunction<R, ? super T, R> accumulator, BinaryOperator<R> combiner)
+	{
+		return ForkJoinPool.commonPool().invoke(new ChunkTask<>(elements, identity, accumulator, combiner));
+	}
+
+	private static class ChunkTask<T, R> extends RecursiveTask<R>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Spliterator<T> _elements;
+		private final Supplier<R> _identity;
+		private final BiFunction<R, ? super T, R> _accumulator;
+		private final BinaryOperator<R> _combiner;
+		private R _result;
+
+		ChunkTask(Spliterator<T> elements, Supplier<R> identity,
+				  BiFunction<R, ? super T, R> accumulator, BinaryOperator<R> combiner)
+		{
+			_elements = elements;
+			_identity = identity;
+			_accumulator = accumulator;
+			_combiner = combiner;
+		}
+
+		@Override
+		protected R compute()
+		{
+			// trySplit hands back the first part of the remaining elements
+			Spliterator<T> prefix = _elements.estimateSize() > SEQUENTIAL_THRESHOLD ? _elements.trySplit() : null;
+
+			if (prefix == null)
+			{
+				_result = _identity.get();
+				_elements.forEachRemaining(t -> _result = _accumulator.apply(_result, t));
+				return _result;
+			}
+
+			ChunkTask<T, R> left = new ChunkTask<>(prefix, _identity, _accumulator, _combiner);
+			left.fork();
+			R right = compute();
+			return _combiner.apply(left.join(), right);
+		}
+	}
+}
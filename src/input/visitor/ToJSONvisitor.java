@@ -10,14 +10,30 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.util.Map;
-import java.util.Set;
 
 /**
  * A visit to a ComponentNode using this visitor type converts it into a JSON representation.
+ * <p>
+ * A parallel ToJSONvisitor converts the points and adjacency lists of large databases on
+ * the common fork-join pool (see ParallelTraversal); the result is identical to the
+ * sequential one, in the same order.
  * @author brycenaddison
  * @created Wed Oct 05 2022
  */
-public class ToJSONvisitor implements ComponentNodeVisitor {
+public class ToJSONvisitor implements ComponentNodeVisitor<Object, Object> {
+    protected boolean _parallel;
+
+    public ToJSONvisitor() {
+        this(false);
+    }
+
+    /**
+     * @param parallel true to convert points and adjacency lists in parallel
+     */
+    public ToJSONvisitor(boolean parallel) {
+        _parallel = parallel;
+    }
+
     /**
      * Returns a JSONObject representing a FigureNode
      */
@@ -41,29 +57,42 @@ public class ToJSONvisitor implements ComponentNodeVisitor {
      */
     @Override
     public Object visitSegmentDatabaseNode(SegmentNodeDatabase node, Object o) {
+        if (_parallel) {
+            return ParallelTraversal.reduce(node.uniqueAdjacencyLists().spliterator(), JSONArray::new,
+                                            (arr, entry) -> putAdjacencyList(arr, entry.getKey(), entry.getValue()),
+                                            JSONArray::putAll);
+        }
+
         JSONArray arr = new JSONArray();
 
         // use the database as a unique map (This excludes redundant segments; no AB and BA--one or the other)
-        for (Map.Entry<PointNode, Set<PointNode>> entry: node.uniqueEntrySet()) {
-        	
-            JSONObject obj = new JSONObject();
-
-            JSONArray list = new JSONArray();
-            
-            // add the name of each point in the values of the adj list to the temp JSONArray
-            for (PointNode point: entry.getValue()) {
-                list.put(point.getName());
-            }
-            // now the object looks like A : [B, C, ...], a completed adj list. Add it to the JSONObject
-            obj.put(entry.getKey().getName(), list);
-
-            // add new entry to array of adj lists
-            arr.put(obj);
+        for (Map.Entry<PointNode, Iterable<PointNode>> entry: node.uniqueAdjacencyLists()) {
+            putAdjacencyList(arr, entry.getKey(), entry.getValue());
         }
         
         return arr;
     }
 
+    /**
+     * Adds the JSONObject A : [B, C, ...] for a point A to an array.
+     * @return the array
+     */
+    private static JSONArray putAdjacencyList(JSONArray arr, PointNode a, Iterable<PointNode> neighbors) {
+        JSONArray list = new JSONArray();
+
+        // add the name of each point in the values of the adj list to the temp JSONArray
+        for (PointNode point: neighbors) {
+            list.put(point.getName());
+        }
+
+        // now the object looks like A : [B, C, ...], a completed adj list. Add it to the JSONObject
+        JSONObject obj = new JSONObject();
+        obj.put(a.getName(), list);
+
+        // add new entry to array of adj lists
+        return arr.put(obj);
+    }
+
     /**
      * Dummy implementation, not needed
      */
@@ -91,6 +120,12 @@ public class ToJSONvisitor implements ComponentNodeVisitor {
      */
     @Override
     public Object visitPointNodeDatabase(PointNodeDatabase node, Object o) {
+        if (_parallel) {
+            return ParallelTraversal.reduce(node.getPoints().spliterator(), JSONArray::new,
+                                            (arr, point) -> arr.put(this.visitPointNode(point, null)),
+                                            JSONArray::putAll);
+        }
+
         JSONArray arr = new JSONArray();
 
         // for each PointNode in the database, put its JSON representation in our JSONArray
@@ -0,0 +1,142 @@
+package input.visitor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The state UnparseVisitor threads through a traversal: where the text goes and the
+ * current indentation level. One context is created per unparse and then mutated as
+ * the visitor descends, and the indentation strings are computed once per level, so
+ * unparsing into a StringBuilder creates no garbage per node beyond the output itself.
+ */
+public class UnparseContext
+{
+	private static final String INDENT = "    ";
+
+	protected Appendable _out;
+	protected int _level;
+	protected String[] _indents;
+
+	// formats numbers when the output is not a StringBuilder
+	protected StringBuilder _scratch;
+
+	/**
+	 * @param out -- where to write the unparsed text
+	 */
+	public UnparseContext(Appendable out)
+	{
+		this(out, 0);
+	}
+
+	/**
+	 * @param out -- where to write the unparsed text
+	 * @param level -- indentation level to start at
+	 * @throws IllegalArgumentException if level is negative
+	 */
+	public UnparseContext(Appendable out, int level)
+	{
+		if (level < 0) throw new IllegalArgumentException("Indentation level must not be negative: " + level);
+
+		_out = out;
+		_level = level;
+		_indents = new String[0];
+		_scratch = new StringBuilder();
+	}
+
+	public Appendable getOut()
+	{
+		return _out;
+	}
+
+	public int getLevel()
+	{
+		return _level;
+	}
+
+	/**
+	 * Moves one indentation level in.
+	 */
+	public void indent()
+	{
+		_level++;
+	}
+
+	/**
+	 * Moves one indentation level out.
+	 * @throws IllegalArgumentException if already at level 0
+	 */
+	public void outdent()
+	{
+		if (_level == 0) throw new IllegalArgumentException("Cannot outdent past level 0");
+		_level--;
+	}
+
+	/**
+	 * Starts a line at the current indentation level.
+	 */
+	public UnparseContext startLine()
+	{
+		if (_level >= _indents.length) growIndents();
+		return append(_indents[_level]);
+	}
+
+	/**
+	 * Ends the current line.
+	 */
+	public UnparseContext endLine()
+	{
+		return append('\n');
+	}
+
+	public UnparseContext append(CharSequence s)
+	{
+		try
+		{
+			_out.append(s);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		return this;
+	}
+
+	public UnparseContext append(char c)
+	{
+		try
+		{
+			_out.append(c);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Appends a number as String.valueOf(d) would spell it.
+	 */
+	public UnparseContext append(double d)
+	{
+		if (_out instanceof StringBuilder)
+		{
+			((StringBuilder) _out).append(d);
+			return this;
+		}
+
+		_scratch.setLength(0);
+		_scratch.append(d);
+		return append(_scratch);
+	}
+
+	private void growIndents()
+	{
+		String[] indents = new String[Math.max(_level + 1, _indents.length * 2)];
+		for (int i = 0; i < indents.length; i++)
+		{
+			indents[i] = i < _indents.length ? _indents[i] : INDENT.repeat(i);
+		}
+		_indents = indents;
+	}
+}
@@ -1,8 +1,6 @@
 package input.visitor;
 
 import java.util.AbstractMap;
-import java.util.Map;
-import java.util.Set;
 import java.util.Map.Entry;
 
 import input.components.*;
@@ -13,51 +11,49 @@ import input.components.segment.SegmentNodeDatabase;
 /**
  * Defines the methods used to unparse ComponentNodes as a StringBuilder.
  * 
+ * The input object is an UnparseContext holding the output and the indentation level.
+ * For compatibility, a SimpleEntry containing a StringBuilder and an indentation level
+ * is also accepted; it is wrapped in a context once, at the node it is passed to.
+ * 
  * Note: visitFigureNode is the only method in this class to return anything. All other methods
  * simply modify the input StringBuilder. 
  */
-public class UnparseVisitor implements ComponentNodeVisitor {
+public class UnparseVisitor implements ComponentNodeVisitor<Object, Object> {
 	/**
 	 * Unparses a FigureNode in the form of a StringBuilder that contains the completed parsed
 	 * FigureNode. This therefore includes all of the unparsed objects that a FigureNode holds. So,
 	 * the resulting StringBuilder also contains an unparsed PointNodeDatabase and
 	 * SegmentNodeDatabase.
-	 * @return StringBuilder that contains unparsed FigureNode
+	 * @return the output of the context (the StringBuilder) that contains unparsed FigureNode
 	 */
 	@Override
 	public Object visitFigureNode(FigureNode node, Object o) {
-		// Unpack the input object containing a Stringbuilder and an indentation level
-		@SuppressWarnings("unchecked")
-		AbstractMap.SimpleEntry<StringBuilder, Integer> pair =
-				(AbstractMap.SimpleEntry<StringBuilder, Integer>) (o);
-		StringBuilder sb = pair.getKey();
-		int level = pair.getValue();
+		UnparseContext context = context(o);
 
 		// Begin to build the string of the JSON file as follows:
 		// Figure:
 		// {
 		// Description: "whatever the description is",
 		// Points:
-		sb.append("    ".repeat(level)).append("Figure\n");
-		sb.append("    ".repeat(level)).append("{\n");
-		sb.append("    ".repeat(level + 1)).append("Description: ").append(node.getDescription())
-				.append("\n");
-		sb.append("    ".repeat(level + 1)).append("Points:\n");
+		context.startLine().append("Figure").endLine();
+		context.startLine().append('{').endLine();
+		context.indent();
+		context.startLine().append("Description: ").append(node.getDescription()).endLine();
+		context.startLine().append("Points:").endLine();
 
 		// now, delegate the unparsing of the PointNodeDatabase to the visitPointNodeDatabase
-		// method. The result is appended to this StringBuilder.
-		node.getPointsDatabase().accept(this,
-				new AbstractMap.SimpleEntry<StringBuilder, Integer>(sb, level + 1));
+		// method. The result is appended to the same output.
+		node.getPointsDatabase().accept(this, context);
 
-		sb.append("    ".repeat(level + 1)).append("Segments:\n");
+		context.startLine().append("Segments:").endLine();
 		// again, delegate the unparsing of the SegmentNodeDatabase to the visitSegmentDatabaseNode
-		// method. The result is appended to this StringBuilder.
-		node.getSegments().accept(this,
-				new AbstractMap.SimpleEntry<StringBuilder, Integer>(sb, level + 1));
+		// method. The result is appended to the same output.
+		node.getSegments().accept(this, context);
 
-		sb.append("    ".repeat(level)).append("}\n");
+		context.outdent();
+		context.startLine().append('}').endLine();
 		// result is completed StringBuilder
-		return pair.getKey();
+		return context.getOut();
 	}
 
 	/**
@@ -65,28 +61,25 @@ public class UnparseVisitor implements ComponentNodeVisitor {
 	 */
 	@Override
 	public Object visitSegmentDatabaseNode(SegmentNodeDatabase node, Object o) {
-		@SuppressWarnings("unchecked")
-		AbstractMap.SimpleEntry<StringBuilder, Integer> pair =
-				(AbstractMap.SimpleEntry<StringBuilder, Integer>) (o);
-		StringBuilder sb = pair.getKey();
-		int level = pair.getValue();
+		UnparseContext context = context(o);
 
-		sb.append("    ".repeat(level)).append("{\n");
+		context.startLine().append('{').endLine();
+		context.indent();
 
 		// use the database as a unique map (This excludes redundant segments; no AB and BA--one or the other)
-		for (Entry<PointNode, Set<PointNode>> entry : node.uniqueEntrySet()) {
-			PointNode a = entry.getKey();
-			sb.append("    ".repeat(level + 1)).append(a.getName()).append(" :");
+		for (Entry<PointNode, Iterable<PointNode>> entry : node.uniqueAdjacencyLists()) {
+			context.startLine().append(entry.getKey().getName()).append(" :");
 
 			// appends every name of the point 
 			for (PointNode b : entry.getValue()) {
-				sb.append(" ").append(b.getName());
+				context.append(' ').append(b.getName());
 			}
 
-			sb.append("\n");
+			context.endLine();
 		}
 
-		sb.append("    ".repeat(level)).append("}\n");
+		context.outdent();
+		context.startLine().append('}').endLine();
 
 		return null;
 	}
@@ -102,51 +95,60 @@ public class UnparseVisitor implements ComponentNodeVisitor {
 
 	/**
 	 * Unparses a PointNodeDatabase by unparsing all of the points that it contains. It appends all
-	 * of this to a StringBuilder.
+	 * of this to the output of the context.
 	 * 
 	 * @param node - PointNodeDatabase to unparse
-	 * @param o - object that should be a SimpleEntry containing the StringBuilder and indentation
-	 *        level
-	 * @return null, because all modifications are done to the StringBuilder
+	 * @param o - UnparseContext, or a SimpleEntry containing the StringBuilder and indentation level
+	 * @return null, because all modifications are done to the output
 	 */
 	@Override
 	public Object visitPointNodeDatabase(PointNodeDatabase node, Object o) {
-		@SuppressWarnings("unchecked")
-		AbstractMap.SimpleEntry<StringBuilder, Integer> pair =
-				(AbstractMap.SimpleEntry<StringBuilder, Integer>) (o);
-		StringBuilder sb = pair.getKey();
-		int level = pair.getValue();
+		UnparseContext context = context(o);
 
-		sb.append("    ".repeat(level)).append("{\n");
+		context.startLine().append('{').endLine();
+		context.indent();
 
 		// for every PointNode in this database, unparse it 
 		for (PointNode p : node.getPoints()) {
-			p.accept(this, new AbstractMap.SimpleEntry<StringBuilder, Integer>(sb, level + 1));
+			p.accept(this, context);
 		}
 
-		sb.append("    ".repeat(level)).append("}\n");
+		context.outdent();
+		context.startLine().append('}').endLine();
 
 		return null;
 	}
 
 	/**
-	 * Unparses a PointNode by appending to a StringBuilder.
+	 * Unparses a PointNode by appending to the output of the context, in the form
+	 * of PointNode.toString().
 	 * 
 	 * @param node - PointNode to unparse
-	 * @param o - object that should be a SimpleEntry containing the StringBuilder and indentation
-	 *        level
-	 * @return null, because all modifications are done to the StringBuilder
+	 * @param o - UnparseContext, or a SimpleEntry containing the StringBuilder and indentation level
+	 * @return null, because all modifications are done to the output
 	 */
 	@Override
 	public Object visitPointNode(PointNode node, Object o) {
+		UnparseContext context = context(o);
+
+		context.startLine().append(node.getName())
+			.append('(').append(node.getX()).append(", ").append(node.getY()).append(')')
+			.endLine();
+
+		return null;
+	}
+
+	/**
+	 * Unpack the input object: either a context already, or a SimpleEntry containing a
+	 * StringBuilder and an indentation level
+	 */
+	private static UnparseContext context(Object o) {
+		if (o instanceof UnparseContext) return (UnparseContext) o;
+
 		@SuppressWarnings("unchecked")
 		AbstractMap.SimpleEntry<StringBuilder, Integer> pair =
 				(AbstractMap.SimpleEntry<StringBuilder, Integer>) (o);
-		StringBuilder sb = pair.getKey();
-		int level = pair.getValue();
 
-		sb.append("    ".repeat(level)).append(node).append("\n");
-
-		return null;
+		return new UnparseContext(pair.getKey(), pair.getValue());
 	}
 }
@@ -0,0 +1,153 @@
+package utilities.io;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Filters all comments using    // ...
+ * while the text is being read, so a file never has to be held in memory as a whole.
+ * Like FileUtilities.readFileFilterComments, everything from the comment prefix to the
+ * end of its line is dropped; the line break itself is kept.
+ */
+public class CommentFilterReader extends FilterReader
+{
+	private static final int BUFFER_SIZE = 8192;
+
+	protected char[] _prefix;
+	protected char[] _buffer;
+	protected int _pos;
+	protected int _limit;
+	protected boolean _inComment;
+	protected boolean _eof;
+
+	/**
+	 * @param in -- reader to filter
+	 */
+	public CommentFilterReader(Reader in)
+	{
+		this(in, global.Constants.INPUT_FILE_COMMENT_PREFIX);
+	}
+
+	/**
+	 * @param in -- reader to filter
+	 * @param prefix -- text that starts a comment running to the end of the line
+	 */
+	public CommentFilterReader(Reader in, String prefix)
+	{
+		super(in);
+		_prefix = prefix.toCharArray();
+		_buffer = new char[Math.max(BUFFER_SIZE, _prefix.length)];
+		_pos = 0;
+		_limit = 0;
+		_inComment = false;
+		_eof = false;
+	}
+
+	@Override
+	public int read() throws IOException
+	{
+		char[] c = new char[1];
+		return read(c, 0, 1) == -1 ? -1 : c[0];
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException
+	{
+		int n = 0;
+
+		while (n < len && available(1))
+		{
+			char c = _buffer[_pos];
+
+			if (_inComment)
+			{
+				if (c != '\n') { _pos++; continue; }
+				_inComment = false;
+			}
+			else if (c == _prefix[0] && startsComment())
+			{
+				_inComment = true;
+				_pos += _prefix.length;
+				continue;
+			}
+
+			cbuf[off + n++] = c;
+			_pos++;
+		}
+
+		return n == 0 && len > 0 ? -1 : n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException
+	{
+		char[] skipped = new char[(int) Math.min(n, BUFFER_SIZE)];
+		long total = 0;
+
+		while (total < n)
+		{
+			int count = read(skipped, 0, (int) Math.min(n - total, skipped.length));
+			if (count == -1) break;
+			total += count;
+		}
+		return total;
+	}
+
+	@Override
+	public boolean ready() throws IOException
+	{
+		return _pos < _limit || in.ready();
+	}
+
+	@Override
+	public boolean markSupported()
+	{
+		return false;
+	}
+
+	@Override
+	public void mark(int readAheadLimit) throws IOException
+	{
+		throw new IOException("mark() not supported");
+	}
+
+	@Override
+	public void reset() throws IOException
+	{
+		throw new IOException("reset() not supported");
+	}
+
+	private boolean startsComment() throws IOException
+	{
+		if (!available(_prefix.length)) return false;
+
+		for (int i = 1; i < _prefix.length; i++)
+		{
+			if (_buffer[_pos + i] != _prefix[i]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Makes sure at least count characters are buffered, unless the input ends first.
+	 */
+	private boolean available(int count) throws IOException
+	{
+		if (_limit - _pos >= count) return true;
+
+		// keep the unread tail and read behind it
+		System.arraycopy(_buffer, _pos, _buffer, 0, _limit - _pos);
+		_limit -= _pos;
+		_pos = 0;
+
+		while (_limit < count && !_eof)
+		{
+			int n = in.read(_buffer, _limit, _buffer.length - _limit);
+			if (n == -1) _eof = true;
+			else _limit += n;
+		}
+
+		return _limit - _pos >= count;
+	}
+}
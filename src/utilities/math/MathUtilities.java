@@ -11,6 +11,9 @@ public class MathUtilities
     public static final double EPSILON_POWER = 6;
     public static final double EPSILON = Math.pow(10, -EPSILON_POWER); // 0.000001
 
+    // removeLessEpsilon runs on every PointNode construction, so its scale is computed once
+    private static final double LESS_EPSILON_SCALE = Math.pow(10, EPSILON_POWER - 1);
+
     public static boolean doubleEquals(double a, double b)
     {
         return Math.abs(a - b) < EPSILON;
@@ -26,7 +29,7 @@ public class MathUtilities
      */
     public static double removeLessEpsilon(double x)
     {
-    	int value = (int)(x * Math.pow(10, EPSILON_POWER - 1));
-    	return value / Math.pow(10, EPSILON_POWER - 1);
+    	long value = (long)(x * LESS_EPSILON_SCALE);
+    	return value / LESS_EPSILON_SCALE;
     }
 }
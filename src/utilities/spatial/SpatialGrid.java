@@ -0,0 +1,361 @@
+package utilities.spatial;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A uniform grid over the plane that indexes items by their bounding boxes. An item is
+ * listed in every cell its box overlaps, so a rectangle query only inspects the cells
+ * the rectangle overlaps, and a nearest-item query searches outward ring by ring from
+ * the cell of the query point.
+ * <p>
+ * Items can be added and removed at any time. cellSize(...) picks a starting cell size
+ * that puts about one point in each cell. If later items spread the grid over more than
+ * CELLS_PER_ITEM cells per item, the cell size is doubled until they fit and every item
+ * is filed again, so a grid made for a few close items stays usable when far-apart items
+ * arrive.
+ *
+ * @param <T> the type of item indexed
+ */
+public class SpatialGrid<T> {
+    // cells the occupied range may span per item before the cell size is doubled
+    private static final int CELLS_PER_ITEM = 16;
+
+    /**
+     * Distance from an item to a query point, used by nearest-item queries. It must be
+     * at least the distance from the point to the item's bounding box.
+     */
+    public interface Distance<T> {
+        double between(T item, double x, double y);
+    }
+
+    protected double _cellSize;
+    protected Map<Long, Cell<T>> _cells;
+    protected int _size;
+
+    // number of items the grid was made for
+    protected int _expected;
+
+    // range of cells that have ever held an item
+    protected long _minCX;
+    protected long _minCY;
+    protected long _maxCX;
+    protected long _maxCY;
+
+    /**
+     * @param cellSize -- width and height of a cell
+     */
+    public SpatialGrid(double cellSize) {
+        this(cellSize, 0);
+    }
+
+    /**
+     * @param cellSize -- width and height of a cell
+     * @param expected -- number of items the cell size was picked for; until the grid
+     *                    holds more, they may spread over CELLS_PER_ITEM cells each
+     */
+    public SpatialGrid(double cellSize, int expected) {
+        if (!(cellSize > 0) || Double.isInfinite(cellSize)) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+
+        _cellSize = cellSize;
+        _cells = new HashMap<>();
+        _size = 0;
+        _expected = expected;
+        _minCX = _minCY = Long.MAX_VALUE;
+        _maxCX = _maxCY = Long.MIN_VALUE;
+    }
+
+    /**
+     * @param width  -- width of the area the items cover
+     * @param height -- height of the area the items cover
+     * @param count  -- number of items
+     * @return a cell size that spreads count items over the area at about one per cell
+     */
+    public static double cellSize(double width, double height, int count) {
+        double size = count > 0 ? Math.sqrt(width * height / count) : 0;
+        // points along a line have no area to spread over
+        if (!(size > 0)) size = count > 0 ? Math.max(width, height) / count : 0;
+        return size > 0 && !Double.isInfinite(size) ? size : 1.0;
+    }
+
+    public double getCellSize() {
+        return _cellSize;
+    }
+
+    /**
+     * @return the number of items in the grid
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * @param item -- item to index at a single point
+     */
+    public void insert(T item, double x, double y) {
+        insert(item, x, y, x, y);
+    }
+
+    /**
+     * @param item -- item to index by the box [minX, maxX] x [minY, maxY]
+     */
+    public void insert(T item, double minX, double minY, double maxX, double maxY) {
+        this.fit(minX, minY, maxX, maxY);
+        this.place(new Item<>(item, minX, minY, maxX, maxY));
+        _size++;
+    }
+
+    private void place(Item<T> entry) {
+        long cx1 = cell(entry._minX), cy1 = cell(entry._minY), cx2 = cell(entry._maxX), cy2 = cell(entry._maxY);
+        for (long cx = cx1; cx <= cx2; cx++) {
+            for (long cy = cy1; cy <= cy2; cy++) {
+                _cells.computeIfAbsent(key(cx, cy), k -> new Cell<>()).add(entry);
+            }
+        }
+
+        _minCX = Math.min(_minCX, cx1);
+        _minCY = Math.min(_minCY, cy1);
+        _maxCX = Math.max(_maxCX, cx2);
+        _maxCY = Math.max(_maxCY, cy2);
+    }
+
+    /**
+     * Doubles the cell size, as often as needed, so that the occupied range grown to take
+     * the box spans at most CELLS_PER_ITEM cells per item, then files every item again.
+     */
+    private void fit(double minX, double minY, double maxX, double maxY) {
+        long x1 = Math.min(_minCX, cell(minX)), y1 = Math.min(_minCY, cell(minY));
+        long x2 = Math.max(_maxCX, cell(maxX)), y2 = Math.max(_maxCY, cell(maxY));
+        double limit = CELLS_PER_ITEM * (Math.max(_size, _expected) + 1.0);
+
+        int doublings = 0;
+        while ((x2 - x1 + 1.0) * (y2 - y1 + 1.0) > limit) {
+            x1 = Math.floorDiv(x1, 2);
+            y1 = Math.floorDiv(y1, 2);
+            x2 = Math.floorDiv(x2, 2);
+            y2 = Math.floorDiv(y2, 2);
+            doublings++;
+        }
+        if (doublings == 0) return;
+
+        // an item spanning several cells is listed in each of them
+        Set<Item<T>> items = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Cell<T> cell : _cells.values()) {
+            items.addAll(cell._items);
+        }
+
+        _cellSize = Math.scalb(_cellSize, doublings);
+        _cells = new HashMap<>();
+        _minCX = _minCY = Long.MAX_VALUE;
+        _maxCX = _maxCY = Long.MIN_VALUE;
+        for (Item<T> item : items) {
+            this.place(item);
+        }
+    }
+
+    /**
+     * Removes one item equal to the given one that was inserted with the given box.
+     *
+     * @return true if the item was in the grid
+     */
+    public boolean remove(T item, double minX, double minY, double maxX, double maxY) {
+        boolean removed = false;
+
+        long cx1 = cell(minX), cy1 = cell(minY), cx2 = cell(maxX), cy2 = cell(maxY);
+        for (long cx = cx1; cx <= cx2; cx++) {
+            for (long cy = cy1; cy <= cy2; cy++) {
+                Long key = key(cx, cy);
+                Cell<T> cell = _cells.get(key);
+                if (cell == null || !cell.remove(item)) continue;
+
+                removed = true;
+                if (cell.isEmpty()) _cells.remove(key);
+            }
+        }
+
+        if (removed) _size--;
+        return removed;
+    }
+
+    /**
+     * @return every item whose box intersects the rectangle [minX, maxX] x [minY, maxY]
+     */
+    public List<T> search(double minX, double minY, double maxX, double maxY) {
+        List<T> found = new ArrayList<>();
+        if (_size == 0 || minX > maxX || minY > maxY) return found;
+
+        long cx1 = Math.max(cell(minX), _minCX), cy1 = Math.max(cell(minY), _minCY);
+        long cx2 = Math.min(cell(maxX), _maxCX), cy2 = Math.min(cell(maxY), _maxCY);
+        if (cx1 > cx2 || cy1 > cy2) return found;
+
+        // a rectangle covering more cells than are occupied is cheaper to answer from the occupied cells
+        if ((double) (cx2 - cx1 + 1) * (cy2 - cy1 + 1) > _cells.size()) {
+            for (Map.Entry<Long, Cell<T>> entry : _cells.entrySet()) {
+                long cx = entry.getKey() >> 32;
+                long cy = (int) (long) entry.getKey();
+                if (cx < cx1 || cx > cx2 || cy < cy1 || cy > cy2) continue;
+
+                collect(entry.getValue(), cx, cy, minX, minY, maxX, maxY, found);
+            }
+            return found;
+        }
+
+        for (long cx = cx1; cx <= cx2; cx++) {
+            for (long cy = cy1; cy <= cy2; cy++) {
+                Cell<T> cell = _cells.get(key(cx, cy));
+                if (cell != null) collect(cell, cx, cy, minX, minY, maxX, maxY, found);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * An item spanning several cells is reported only from the cell holding the lower
+     * left corner of its overlap with the query, so it is reported once.
+     */
+    private void collect(Cell<T> cell, long cx, long cy,
+                         double minX, double minY, double maxX, double maxY, List<T> found) {
+        for (Item<T> item : cell._items) {
+            if (item._maxX < minX || item._minX > maxX || item._maxY < minY || item._minY > maxY) continue;
+            if (cell(Math.max(item._minX, minX)) != cx || cell(Math.max(item._minY, minY)) != cy) continue;
+
+            found.add(item._item);
+        }
+    }
+
+    /**
+     * @param k        -- number of items wanted
+     * @param distance -- distance from an item to the query point
+     * @return the k items nearest to (x, y), nearest first; fewer if the grid holds fewer
+     */
+    public List<T> nearest(double x, double y, int k, Distance<? super T> distance) {
+        if (k <= 0 || _size == 0) return new ArrayList<>();
+
+        // the k best so far, farthest on top
+        PriorityQueue<Neighbor<T>> best = new PriorityQueue<>(Comparator.comparingDouble((Neighbor<T> n) -> n._distance).reversed());
+        Set<Item<T>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        long qx = cell(x), qy = cell(y);
+        // rings that miss every occupied cell hold nothing
+        long first = Math.max(0, Math.max(Math.max(_minCX - qx, qx - _maxCX), Math.max(_minCY - qy, qy - _maxCY)));
+        long last = Math.max(Math.max(Math.abs(qx - _minCX), Math.abs(qx - _maxCX)),
+                             Math.max(Math.abs(qy - _minCY), Math.abs(qy - _maxCY)));
+
+        for (long r = first; r <= last; r++) {
+            // whatever is left lies in rings r and beyond, at least (r - 1) cells away
+            if (best.size() == k && best.peek()._distance <= (r - 1) * _cellSize) break;
+
+            // once a ring holds more cells than are occupied, the occupied cells are cheaper to scan
+            if (8 * r > _cells.size()) {
+                for (Map.Entry<Long, Cell<T>> entry : _cells.entrySet()) {
+                    long cx = entry.getKey() >> 32;
+                    long cy = (int) (long) entry.getKey();
+                    if (Math.max(Math.abs(cx - qx), Math.abs(cy - qy)) < r) continue;
+
+                    offer(entry.getValue(), x, y, k, distance, best, seen);
+                }
+                break;
+            }
+
+            for (long dx = -r; dx <= r; dx++) {
+                // the top and bottom rows of the ring, then the columns in between
+                boolean edge = dx == -r || dx == r;
+                for (long dy = -r; dy <= r; dy += edge || r == 0 ? 1 : 2 * r) {
+                    Cell<T> cell = _cells.get(key(qx + dx, qy + dy));
+                    if (cell != null) offer(cell, x, y, k, distance, best, seen);
+                }
+            }
+        }
+
+        List<T> nearest = new ArrayList<>(best.size());
+        while (!best.isEmpty()) nearest.add(best.poll()._item);
+        Collections.reverse(nearest);
+        return nearest;
+    }
+
+    private static <T> void offer(Cell<T> cell, double x, double y, int k, Distance<? super T> distance,
+                                  PriorityQueue<Neighbor<T>> best, Set<Item<T>> seen) {
+        for (Item<T> item : cell._items) {
+            if (!seen.add(item)) continue;
+
+            double d = distance.between(item._item, x, y);
+            if (best.size() < k) {
+                best.add(new Neighbor<>(item._item, d));
+            } else if (d < best.peek()._distance) {
+                best.poll();
+                best.add(new Neighbor<>(item._item, d));
+            }
+        }
+    }
+
+    /**
+     * Cell coordinates are clamped to the int range so that a pair packs into one long
+     * key; far-out items share the border cells, which only costs extra comparisons.
+     */
+    private long cell(double value) {
+        double c = Math.floor(value / _cellSize);
+        return (long) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, c));
+    }
+
+    private static Long key(long cx, long cy) {
+        return (cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    protected static class Item<T> {
+        protected final T _item;
+        protected final double _minX;
+        protected final double _minY;
+        protected final double _maxX;
+        protected final double _maxY;
+
+        protected Item(T item, double minX, double minY, double maxX, double maxY) {
+            _item = item;
+            _minX = minX;
+            _minY = minY;
+            _maxX = maxX;
+            _maxY = maxY;
+        }
+    }
+
+    protected static class Cell<T> {
+        protected final List<Item<T>> _items = new ArrayList<>(1);
+
+        protected void add(Item<T> item) {
+            _items.add(item);
+        }
+
+        protected boolean remove(T item) {
+            for (Iterator<Item<T>> it = _items.iterator(); it.hasNext(); ) {
+                if (it.next()._item.equals(item)) {
+                    it.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        protected boolean isEmpty() {
+            return _items.isEmpty();
+        }
+    }
+
+    private static class Neighbor<T> {
+        private final T _item;
+        private final double _distance;
+
+        private Neighbor(T item, double distance) {
+            _item = item;
+            _distance = distance;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package utilities.spatial;
+
+import java.util.List;
+
+/**
+ * A SpatialGrid that several threads can change and search at once. Every operation
+ * holds the grid's monitor, so a query never sees an item half inserted.
+ *
+ * @param <T> the type of item indexed
+ */
+public class SynchronizedSpatialGrid<T> extends SpatialGrid<T> {
+    /**
+     * @param cellSize -- width and height of a cell
+     */
+    public SynchronizedSpatialGrid(double cellSize) {
+        super(cellSize);
+    }
+
+    /**
+     * @param cellSize -- width and height of a cell
+     * @param expected -- number of items the cell size was picked for
+     */
+    public SynchronizedSpatialGrid(double cellSize, int expected) {
+        super(cellSize, expected);
+    }
+
+    @Override
+    public synchronized double getCellSize() {
+        return super.getCellSize();
+    }
+
+    @Override
+    public synchronized int size() {
+        return super.size();
+    }
+
+    @Override
+    public synchronized void insert(T item, double minX, double minY, double maxX, double maxY) {
+        super.insert(item, minX, minY, maxX, maxY);
+    }
+
+    @Override
+    public synchronized boolean remove(T item, double minX, double minY, double maxX, double maxY) {
+        return super.remove(item, minX, minY, maxX, maxY);
+    }
+
+    @Override
+    public synchronized List<T> search(double minX, double minY, double maxX, double maxY) {
+        return super.search(minX, minY, maxX, maxY);
+    }
+
+    @Override
+    public synchronized List<T> nearest(double x, double y, int k, Distance<? super T> distance) {
+        return super.nearest(x, y, k, distance);
+    }
+}
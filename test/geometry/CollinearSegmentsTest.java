@@ -0,0 +1,145 @@
+package geometry;
+
+import static input.FigureFixtures.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.segment.SegmentNode;
+
+class CollinearSegmentsTest {
+	private static Set<Set<SegmentNode>> groups(List<MaximalSegment> maximal)
+	{
+		Set<Set<SegmentNode>> groups = new HashSet<>();
+		for (MaximalSegment m : maximal) groups.add(new HashSet<>(m.getSegments()));
+		return groups;
+	}
+
+	/**
+	 * The O(n^2) definition: connect every collinear pair that touches or overlaps
+	 */
+	private static Set<Set<SegmentNode>> bruteForce(List<SegmentNode> segments)
+	{
+		int[] parent = new int[segments.size()];
+		for (int i = 0; i < parent.length; i++) parent[i] = i;
+
+		for (int i = 0; i < segments.size(); i++)
+		{
+			for (int j = i + 1; j < segments.size(); j++)
+			{
+				PointNode a = segments.get(i).getPoint1(), b = segments.get(i).getPoint2();
+				PointNode c = segments.get(j).getPoint1(), d = segments.get(j).getPoint2();
+				double rx = b.getX() - a.getX(), ry = b.getY() - a.getY();
+				if (rx * (c.getY() - a.getY()) - ry * (c.getX() - a.getX()) != 0) continue;
+				if (rx * (d.getY() - a.getY()) - ry * (d.getX() - a.getX()) != 0) continue;
+
+				double len = rx * rx + ry * ry;
+				double tc = (rx * (c.getX() - a.getX()) + ry * (c.getY() - a.getY())) / len;
+				double td = (rx * (d.getX() - a.getX()) + ry * (d.getY() - a.getY())) / len;
+				if (Math.max(tc, td) < 0 || Math.min(tc, td) > 1) continue;
+
+				parent[find(parent, i)] = find(parent, j);
+			}
+		}
+
+		Map<Integer, Set<SegmentNode>> groups = new HashMap<>();
+		for (int i = 0; i < segments.size(); i++)
+		{
+			groups.computeIfAbsent(find(parent, i), k -> new HashSet<>()).add(segments.get(i));
+		}
+		return new HashSet<>(groups.values());
+	}
+
+	private static int find(int[] parent, int i)
+	{
+		while (parent[i] != i) i = parent[i] = parent[parent[i]];
+		return i;
+	}
+
+	@Test
+	void collinear_line_segments()
+	{
+		FigureNode figure = parse("collinear_line_segments.json");
+		List<MaximalSegment> maximal = CollinearSegments.findMaximalSegments(figure.getSegments());
+
+		assertEquals(1, maximal.size());
+		MaximalSegment line = maximal.get(0);
+		assertTrue(line.isMerged());
+		assertFalse(line.isOverlapping());
+		assertEquals(5, line.getSegments().size());
+
+		List<String> names = new ArrayList<>();
+		for (PointNode p : line.getPoints()) names.add(p.getName());
+		assertEquals(List.of("A", "B", "C", "D", "E", "F"), names);
+		assertEquals(new SegmentNode(figure.getPointsDatabase().getPoint("A"), figure.getPointsDatabase().getPoint("F")),
+				line.asSegmentNode());
+	}
+
+	@Test
+	void triangle_isNotMerged()
+	{
+		List<MaximalSegment> maximal = CollinearSegments.findMaximalSegments(parse("single_triangle.json").getSegments());
+
+		assertEquals(3, maximal.size());
+		for (MaximalSegment m : maximal) assertFalse(m.isMerged());
+	}
+
+	@Test
+	void overlap_gap_and_vertical()
+	{
+		PointNode a = new PointNode("A", 0, 0);
+		PointNode b = new PointNode("B", 2, 2);
+		PointNode c = new PointNode("C", 1, 1);
+		PointNode d = new PointNode("D", 3, 3);
+		PointNode e = new PointNode("E", 5, 5);
+		PointNode f = new PointNode("F", 6, 6);
+		// a vertical line drawn in both directions
+		PointNode g = new PointNode("G", 7, 0);
+		PointNode h = new PointNode("H", 7, 1);
+		PointNode i = new PointNode("I", 7, 3);
+
+		List<SegmentNode> segments = List.of(new SegmentNode(a, b), new SegmentNode(d, c), new SegmentNode(e, f),
+				new SegmentNode(h, g), new SegmentNode(h, i));
+		List<MaximalSegment> maximal = CollinearSegments.findMaximalSegments(segments);
+
+		assertEquals(3, maximal.size());
+		MaximalSegment ad = maximal.get(0);
+		assertTrue(ad.isOverlapping());
+		assertEquals(List.of(a, c, b, d), ad.getPoints());
+		assertFalse(maximal.get(1).isMerged());
+
+		MaximalSegment gi = maximal.get(2);
+		assertFalse(gi.isOverlapping());
+		assertEquals(new SegmentNode(g, i), gi.asSegmentNode());
+	}
+
+	@Test
+	void random_matches_bruteForce()
+	{
+		Random random = new Random(18);
+
+		for (int round = 0; round < 50; round++)
+		{
+			List<SegmentNode> segments = new ArrayList<>();
+			for (int n = 0; n < 60; n++)
+			{
+				PointNode p = new PointNode(random.nextInt(6), random.nextInt(6));
+				PointNode q = new PointNode(random.nextInt(6), random.nextInt(6));
+				if (!p.equals(q)) segments.add(new SegmentNode(p, q));
+			}
+			segments = new ArrayList<>(new HashSet<>(segments));
+
+			assertEquals(bruteForce(segments), groups(CollinearSegments.findMaximalSegments(segments)), "round " + round);
+		}
+	}
+}
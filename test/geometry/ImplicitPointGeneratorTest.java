@@ -0,0 +1,123 @@
+package geometry;
+
+import static input.FigureFixtures.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.Map.Entry;
+
+import org.junit.jupiter.api.Test;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNodeDatabase;
+
+class ImplicitPointGeneratorTest {
+	private static Set<PointNode> neighbors(SegmentNodeDatabase segments, PointNode p)
+	{
+		for (Entry<PointNode, Set<PointNode>> entry : segments.entrySet())
+		{
+			if (entry.getKey() == p) return entry.getValue();
+		}
+		return Set.of();
+	}
+
+	@Test
+	void pentagram()
+	{
+		FigureNode figure = parse("pentagram.json");
+		int points = figure.getPointsDatabase().getPoints().size();
+
+		List<PointNode> implicit = ImplicitPointGenerator.addImplicitPoints(figure);
+
+		assertEquals(5, implicit.size());
+		assertEquals(points + 5, figure.getPointsDatabase().getPoints().size());
+		// the five sides of the star are cut into three; CE crosses nothing
+		assertEquals(16, figure.getSegments().numUndirectedEdges());
+		assertEquals(16, figure.getSegments().asUniqueSegmentList().size());
+		for (PointNode p : implicit)
+		{
+			assertEquals(new PointNode(0, 0).getName(), p.getName());
+			assertEquals(4, neighbors(figure.getSegments(), p).size());
+		}
+
+		assertTrue(SegmentIntersector.findIntersections(figure).isEmpty());
+		assertTrue(ImplicitPointGenerator.addImplicitPoints(figure).isEmpty());
+	}
+
+	@Test
+	void generated_names()
+	{
+		FigureNode figure = parse("bowtie_twist.json");
+
+		List<PointNode> implicit = ImplicitPointGenerator.addImplicitPoints(figure, "X");
+
+		assertEquals(1, implicit.size());
+		assertEquals("X1", implicit.get(0).getName());
+		assertSame(implicit.get(0), figure.getPointsDatabase().getPoint("X1"));
+		assertSame(implicit.get(0), figure.getPointsDatabase().getPoint(1, 1));
+	}
+
+	@Test
+	void shared_crossing_and_t_junction()
+	{
+		PointNodeDatabase points = new PointNodeDatabase();
+		SegmentNodeDatabase segments = new SegmentNodeDatabase();
+		PointNode[] nodes = {
+				new PointNode("A", 0, 0), new PointNode("B", 4, 4),
+				new PointNode("C", 0, 4), new PointNode("D", 4, 0),
+				new PointNode("E", 2, 0), new PointNode("F", 2, 4),
+				new PointNode("G", 3, 1)
+		};
+		for (PointNode p : nodes) points.put(p);
+		segments.addUndirectedEdge(nodes[0], nodes[1]);
+		segments.addUndirectedEdge(nodes[2], nodes[3]);
+		segments.addUndirectedEdge(nodes[4], nodes[5]);
+		// G lies on CD
+		segments.addUndirectedEdge(nodes[6], nodes[1]);
+		FigureNode figure = new FigureNode("", points, segments);
+
+		List<PointNode> implicit = ImplicitPointGenerator.addImplicitPoints(figure);
+
+		// three segments cross at (2, 2); G is already a point
+		assertEquals(1, implicit.size());
+		PointNode centre = implicit.get(0);
+		assertEquals(new PointNode(2, 2), centre);
+		assertEquals(6, neighbors(segments, centre).size());
+		assertTrue(neighbors(segments, nodes[6]).containsAll(List.of(centre, nodes[3], nodes[1])));
+		assertEquals(8, segments.numUndirectedEdges());
+		assertTrue(SegmentIntersector.findIntersections(figure).isEmpty());
+	}
+
+	@Test
+	void random_leaves_no_intersections()
+	{
+		Random random = new Random(16);
+
+		for (int round = 0; round < 20; round++)
+		{
+			PointNodeDatabase points = new PointNodeDatabase();
+			SegmentNodeDatabase segments = new SegmentNodeDatabase();
+			int range = round % 2 == 0 ? 8 : 1000;
+			for (int i = 0; i < 30; i++)
+			{
+				PointNode p = new PointNode(random.nextInt(range), random.nextInt(range));
+				PointNode q = new PointNode(random.nextInt(range), random.nextInt(range));
+				if (p.equals(q)) continue;
+
+				points.put(p);
+				points.put(q);
+				segments.addUndirectedEdge(points.getPoint(p), points.getPoint(q));
+			}
+			FigureNode figure = new FigureNode("", points, segments);
+
+			ImplicitPointGenerator.addImplicitPoints(figure);
+
+			assertTrue(SegmentIntersector.findIntersections(figure).isEmpty(), "round " + round);
+			assertEquals(segments.asUniqueSegmentList().size(), segments.numUndirectedEdges(), "round " + round);
+		}
+	}
+}
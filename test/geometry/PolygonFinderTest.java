@@ -0,0 +1,291 @@
+package geometry;
+
+import static input.FigureFixtures.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNode;
+import input.components.segment.SegmentNodeDatabase;
+
+class PolygonFinderTest {
+	private static Set<Set<String>> names(List<Polygon> polygons)
+	{
+		Set<Set<String>> names = new HashSet<>();
+		for (Polygon polygon : polygons)
+		{
+			Set<String> vertices = new HashSet<>();
+			for (PointNode p : polygon.getPoints()) vertices.add(p.getName());
+			names.add(vertices);
+		}
+		return names;
+	}
+
+	private static double totalArea(List<Polygon> polygons)
+	{
+		double sum = 0;
+		for (Polygon p : polygons) sum += p.getArea();
+		return sum;
+	}
+
+	@Test
+	void pizza()
+	{
+		FigurePolygons figure = new FigurePolygons(parse("pizza.json"));
+
+		assertEquals(Set.of(Set.of("A", "B", "G"), Set.of("B", "C", "G"), Set.of("C", "D", "G"),
+				Set.of("D", "E", "G"), Set.of("E", "F", "G"), Set.of("A", "F", "G")), names(figure.getTriangles()));
+		assertEquals(names(figure.getTriangles()), names(figure.getFaces()));
+		assertEquals(4.0, totalArea(figure.getFaces()), 1e-9);
+	}
+
+	@Test
+	void square_tri()
+	{
+		FigurePolygons figure = new FigurePolygons(parse("square_tri.json"));
+
+		assertEquals(Set.of(Set.of("B", "D", "E")), names(figure.getTriangles()));
+		assertEquals(Set.of(Set.of("A", "B", "C", "D"), Set.of("B", "D", "E")), names(figure.getFaces()));
+		for (Polygon face : figure.getFaces())
+		{
+			assertTrue(Polygon.doubleSignedArea(face.getPoints()) > 0);
+		}
+	}
+
+	@Test
+	void fully_connected_irregular_polygon()
+	{
+		List<Polygon> triangles = PolygonFinder.findTriangles(parse("fully_connected_irregular_polygon.json").getSegments());
+
+		// every 3 of the 5 connected points
+		assertEquals(10, triangles.size());
+		assertEquals(10, names(triangles).size());
+	}
+
+	@Test
+	void pentagram_afterImplicitPoints()
+	{
+		FigureNode figure = parse("pentagram.json");
+		ImplicitPointGenerator.addImplicitPoints(figure);
+
+		// the five points of the star, the pentagon inside it and the region CE cuts off
+		List<Polygon> faces = PolygonFinder.findFaces(figure.getSegments());
+		assertEquals(7, faces.size());
+		assertEquals(1, faces.stream().filter(f -> f.numSides() == 5).count());
+	}
+
+	@Test
+	void collinear_isNotATriangle()
+	{
+		PointNode a = new PointNode("A", 0, 0);
+		PointNode b = new PointNode("B", 1, 0);
+		PointNode c = new PointNode("C", 2, 0);
+		SegmentNodeDatabase segments = new SegmentNodeDatabase();
+		segments.addUndirectedEdge(a, b);
+		segments.addUndirectedEdge(b, c);
+		segments.addUndirectedEdge(a, c);
+
+		assertTrue(PolygonFinder.findTriangles(segments).isEmpty());
+		assertTrue(PolygonFinder.findFaces(segments).isEmpty());
+	}
+
+	@Test
+	void cache_followsSegments()
+	{
+		FigureNode node = parse("square_tri.json");
+		FigurePolygons figure = new FigurePolygons(node);
+		PointNodeDatabase points = node.getPointsDatabase();
+
+		List<Polygon> triangles = figure.getTriangles();
+		assertSame(triangles, figure.getTriangles());
+		assertSame(figure.getFaces(), figure.getFaces());
+		assertThrows(UnsupportedOperationException.class, () -> triangles.clear());
+
+		// the diagonal AD cuts the square in two
+		node.getSegments().addUndirectedEdge(points.getPoint("A"), points.getPoint("D"));
+		assertEquals(3, figure.getTriangles().size());
+		assertEquals(3, figure.getFaces().size());
+
+		node.getSegments().removeUndirectedEdge(points.getPoint("D"), points.getPoint("A"));
+		assertEquals(1, figure.getTriangles().size());
+		assertEquals(2, figure.getFaces().size());
+	}
+
+	@Test
+	void random_matches_bruteForce()
+	{
+		Random random = new Random(19);
+
+		for (int round = 0; round < 30; round++)
+		{
+			List<PointNode> nodes = new ArrayList<>();
+			for (int i = 0; i < 25; i++) nodes.add(new PointNode("P" + i, random.nextDouble(), random.nextDouble()));
+
+			SegmentNodeDatabase segments = new SegmentNodeDatabase();
+			Set<SegmentNode> edges = new HashSet<>();
+			for (int i = 0; i < 25; i++)
+			{
+				for (int j = i + 1; j < 25; j++)
+				{
+					if (random.nextInt(3) != 0) continue;
+					segments.addUndirectedEdge(nodes.get(i), nodes.get(j));
+					edges.add(new SegmentNode(nodes.get(i), nodes.get(j)));
+				}
+			}
+
+			int expected = 0;
+			for (int i = 0; i < 25; i++)
+				for (int j = i + 1; j < 25; j++)
+					for (int k = j + 1; k < 25; k++)
+						if (edges.contains(new SegmentNode(nodes.get(i), nodes.get(j)))
+								&& edges.contains(new SegmentNode(nodes.get(j), nodes.get(k)))
+								&& edges.contains(new SegmentNode(nodes.get(i), nodes.get(k)))) expected++;
+
+			List<Polygon> triangles = PolygonFinder.findTriangles(segments);
+			assertEquals(expected, triangles.size(), "round " + round);
+			assertEquals(expected, names(triangles).size(), "round " + round);
+		}
+	}
+
+	@Test
+	void oneWayAdjacency_isTakenBothWays()
+	{
+		PointNode a = new PointNode("A", 0, 0);
+		PointNode b = new PointNode("B", 1, 0);
+		PointNode c = new PointNode("C", 0, 1);
+
+		// B and C are never keys
+		Map<PointNode, Set<PointNode>> lists = new HashMap<>();
+		lists.put(a, new HashSet<>(List.of(b, c)));
+		lists.put(b, new HashSet<>());
+		lists.get(b).add(c);
+		SegmentNodeDatabase segments = new SegmentNodeDatabase(lists);
+
+		assertEquals(Set.of(Set.of("A", "B", "C")), names(PolygonFinder.findTriangles(segments)));
+		assertEquals(Set.of(Set.of("A", "B", "C")), names(PolygonFinder.findFaces(segments)));
+	}
+
+	@Test
+	void smallFace_isKept()
+	{
+		double side = 1e-4;
+		PointNode a = new PointNode("A", 10, 10);
+		PointNode b = new PointNode("B", 10 + side, 10);
+		PointNode c = new PointNode("C", 10 + side, 10 + side);
+		PointNode d = new PointNode("D", 10, 10 + side);
+		PointNode far = new PointNode("F", 0, 0);
+
+		SegmentNodeDatabase segments = new SegmentNodeDatabase();
+		segments.addUndirectedEdge(a, b);
+		segments.addUndirectedEdge(b, c);
+		segments.addUndirectedEdge(c, d);
+		segments.addUndirectedEdge(d, a);
+		segments.addUndirectedEdge(far, a);
+
+		List<Polygon> faces = PolygonFinder.findFaces(segments);
+		assertEquals(Set.of(Set.of("A", "B", "C", "D")), names(faces));
+		assertEquals(side * side, faces.get(0).getArea(), 1e-12);
+	}
+
+	@Test
+	void farFromOrigin_keepsFaces()
+	{
+		PointNode a = new PointNode("A", 1e6, 1e6);
+		PointNode b = new PointNode("B", 1e6 + 1, 1e6);
+		PointNode c = new PointNode("C", 1e6, 1e6 + 1);
+
+		SegmentNodeDatabase segments = new SegmentNodeDatabase();
+		segments.addUndirectedEdge(a, b);
+		segments.addUndirectedEdge(b, c);
+		segments.addUndirectedEdge(c, a);
+
+		assertEquals(Set.of(Set.of("A", "B", "C")), names(PolygonFinder.findTriangles(segments)));
+		List<Polygon> faces = PolygonFinder.findFaces(segments);
+		assertEquals(Set.of(Set.of("A", "B", "C")), names(faces));
+		assertEquals(0.5, faces.get(0).getArea(), 1e-12);
+	}
+
+	private static double orientation(PointNode a, PointNode b, PointNode c)
+	{
+		return (b.getX() - a.getX()) * (c.getY() - a.getY()) - (b.getY() - a.getY()) * (c.getX() - a.getX());
+	}
+
+	/**
+	 * Whether two segments cross at a point inside both, with no tolerance
+	 */
+	private static boolean cross(SegmentNode p, SegmentNode q)
+	{
+		if (p.getPoint1() == q.getPoint1() || p.getPoint1() == q.getPoint2()
+				|| p.getPoint2() == q.getPoint1() || p.getPoint2() == q.getPoint2()) return false;
+
+		return Math.signum(orientation(p.getPoint1(), p.getPoint2(), q.getPoint1()))
+				* Math.signum(orientation(p.getPoint1(), p.getPoint2(), q.getPoint2())) < 0
+				&& Math.signum(orientation(q.getPoint1(), q.getPoint2(), p.getPoint1()))
+				* Math.signum(orientation(q.getPoint1(), q.getPoint2(), p.getPoint2())) < 0;
+	}
+
+	@Test
+	void random_faces_matchEulerFormula()
+	{
+		int checked = 0;
+		for (int round = 0; round < 500; round++)
+		{
+			Random random = new Random(round);
+			int n = 6 + random.nextInt(6);
+
+			List<PointNode> nodes = new ArrayList<>();
+			for (int i = 0; i < n; i++) nodes.add(new PointNode("P" + i, random.nextDouble(), random.nextDouble()));
+
+			SegmentNodeDatabase segments = new SegmentNodeDatabase();
+			for (int i = 0; i < n; i++)
+				for (int j = i + 1; j < n; j++)
+					if (random.nextInt(3) == 0) segments.addUndirectedEdge(nodes.get(i), nodes.get(j));
+
+			FigureNode figure = new FigureNode("", new PointNodeDatabase(nodes), segments);
+			ImplicitPointGenerator.addImplicitPoints(figure);
+
+			// splitting within EPSILON can leave a crossing that Euler's formula does not allow for
+			List<SegmentNode> unique = segments.asUniqueSegmentList();
+			boolean planar = true;
+			for (int i = 0; i < unique.size() && planar; i++)
+				for (int j = i + 1; j < unique.size() && planar; j++)
+					planar = !cross(unique.get(i), unique.get(j));
+			if (!planar) continue;
+
+			// bounded faces = E - V + components
+			Map<PointNode, PointNode> parent = new HashMap<>();
+			for (Entry<PointNode, Set<PointNode>> entry : segments.entrySet()) parent.put(entry.getKey(), entry.getKey());
+			int components = parent.size();
+			for (SegmentNode segment : unique)
+			{
+				PointNode x = root(parent, segment.getPoint1()), y = root(parent, segment.getPoint2());
+				if (x == y) continue;
+				parent.put(x, y);
+				components--;
+			}
+
+			int expected = unique.size() - parent.size() + components;
+			assertEquals(expected, PolygonFinder.findFaces(segments).size(), "round " + round);
+			checked++;
+		}
+		assertTrue(checked > 450);
+	}
+
+	private static PointNode root(Map<PointNode, PointNode> parent, PointNode p)
+	{
+		while (parent.get(p) != p) p = parent.get(p);
+		return p;
+	}
+}
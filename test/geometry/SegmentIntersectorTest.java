@@ -0,0 +1,143 @@
+package geometry;
+
+import static input.FigureFixtures.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.segment.SegmentNode;
+import utilities.math.MathUtilities;
+
+class SegmentIntersectorTest {
+	/**
+	 * The O(n^2) definition: every non-parallel pair meeting at a point that is not an endpoint of both
+	 */
+	private static Set<Set<SegmentNode>> bruteForce(List<SegmentNode> segments)
+	{
+		Set<Set<SegmentNode>> pairs = new HashSet<>();
+
+		for (int i = 0; i < segments.size(); i++)
+		{
+			for (int j = i + 1; j < segments.size(); j++)
+			{
+				SegmentNode a = segments.get(i);
+				SegmentNode b = segments.get(j);
+				double rx = a.getPoint2().getX() - a.getPoint1().getX(), ry = a.getPoint2().getY() - a.getPoint1().getY();
+				double sx = b.getPoint2().getX() - b.getPoint1().getX(), sy = b.getPoint2().getY() - b.getPoint1().getY();
+				double qx = b.getPoint1().getX() - a.getPoint1().getX(), qy = b.getPoint1().getY() - a.getPoint1().getY();
+				double cross = rx * sy - ry * sx;
+				if (Math.abs(cross) < 1e-9) continue;
+
+				double t = (qx * sy - qy * sx) / cross;
+				double u = (qx * ry - qy * rx) / cross;
+				if (t < -1e-9 || t > 1 + 1e-9 || u < -1e-9 || u > 1 + 1e-9) continue;
+
+				PointNode p = new PointNode(a.getPoint1().getX() + t * rx, a.getPoint1().getY() + t * ry);
+				boolean endA = p.equals(a.getPoint1()) || p.equals(a.getPoint2());
+				boolean endB = p.equals(b.getPoint1()) || p.equals(b.getPoint2());
+				if (endA && endB) continue;
+
+				pairs.add(Set.of(a, b));
+			}
+		}
+		return pairs;
+	}
+
+	private static Set<Set<SegmentNode>> pairs(List<Intersection> intersections)
+	{
+		Set<Set<SegmentNode>> pairs = new HashSet<>();
+		for (Intersection i : intersections) pairs.add(Set.of(i.getSegment1(), i.getSegment2()));
+		return pairs;
+	}
+
+	@Test
+	void pentagram()
+	{
+		FigureNode figure = parse("pentagram.json");
+		List<Intersection> intersections = SegmentIntersector.findIntersections(figure);
+
+		assertEquals(5, intersections.size());
+		for (Intersection i : intersections)
+		{
+			assertFalse(figure.getPointsDatabase().contains(i.getPoint()));
+		}
+	}
+
+	@Test
+	void samples()
+	{
+		assertEquals(1, SegmentIntersector.findIntersections(parse("bowtie_twist.json")).size());
+		assertEquals(0, SegmentIntersector.findIntersections(parse("bowtie.json")).size());
+		assertEquals(0, SegmentIntersector.findIntersections(parse("single_triangle.json")).size());
+
+		List<Intersection> crossing = SegmentIntersector.findIntersections(parse("crossing_symmetric_triangle.json"));
+		assertEquals(1, crossing.size());
+
+		for (String filename : new String[] { "pizza.json", "fully_connected_irregular_polygon.json",
+				"tri_snake.json", "square_tri.json", "filled_dart.json", "collinear_line_segments.json" })
+		{
+			List<SegmentNode> segments = parse(filename).getSegments().asUniqueSegmentList();
+			assertEquals(bruteForce(segments), pairs(SegmentIntersector.findIntersections(segments)), filename);
+		}
+	}
+
+	@Test
+	void bowtie_twist_point()
+	{
+		Intersection i = SegmentIntersector.findIntersections(parse("bowtie_twist.json")).get(0);
+
+		assertEquals(1.0, i.getPoint().getX(), MathUtilities.EPSILON);
+		assertEquals(1.0, i.getPoint().getY(), MathUtilities.EPSILON);
+	}
+
+	@Test
+	void t_junction_and_vertical()
+	{
+		PointNode a = new PointNode("A", 0, 0);
+		PointNode b = new PointNode("B", 4, 0);
+		PointNode c = new PointNode("C", 2, 0);
+		PointNode d = new PointNode("D", 2, 3);
+		PointNode e = new PointNode("E", 0, 1);
+		PointNode f = new PointNode("F", 4, 1);
+
+		List<SegmentNode> segments = List.of(new SegmentNode(a, b), new SegmentNode(c, d), new SegmentNode(e, f));
+		List<Intersection> intersections = SegmentIntersector.findIntersections(segments);
+
+		assertEquals(2, intersections.size());
+		// the vertical segment touches AB at its own endpoint C
+		assertTrue(intersections.stream().anyMatch(i -> i.getPoint() == c));
+		assertTrue(intersections.stream().anyMatch(i -> i.getPoint().equals(new PointNode(2, 1))));
+	}
+
+	@Test
+	void random_matches_bruteForce()
+	{
+		Random random = new Random(223);
+
+		for (int round = 0; round < 50; round++)
+		{
+			List<SegmentNode> segments = new ArrayList<>();
+			// small integer grid so that shared endpoints, T-junctions and verticals are common
+			int range = round % 2 == 0 ? 6 : 1000;
+			for (int i = 0; i < 40; i++)
+			{
+				PointNode p = new PointNode(random.nextInt(range), random.nextInt(range));
+				PointNode q = new PointNode(random.nextInt(range), random.nextInt(range));
+				if (!p.equals(q)) segments.add(new SegmentNode(p, q));
+			}
+			segments = new ArrayList<>(new HashSet<>(segments));
+
+			List<Intersection> intersections = SegmentIntersector.findIntersections(segments);
+			assertEquals(bruteForce(segments), pairs(intersections), "round " + round);
+			assertEquals(pairs(intersections).size(), intersections.size(), "round " + round);
+		}
+	}
+}
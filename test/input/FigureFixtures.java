@@ -0,0 +1,40 @@
+package input;
+
+import input.builder.DefaultBuilder;
+import input.builder.GeometryBuilder;
+import input.components.FigureNode;
+import input.parser.JSONParser;
+import utilities.io.FileUtilities;
+
+/**
+ * Parses the sample figures for tests.
+ */
+public class FigureFixtures
+{
+	/**
+	 * @param filename -- a sample JSON figure file
+	 * @return the figure built by a GeometryBuilder
+	 */
+	public static FigureNode parse(String filename)
+	{
+		return parse(filename, new GeometryBuilder());
+	}
+
+	/**
+	 * @param filename -- a sample JSON figure file
+	 * @param builder -- builds the figure; it must build FigureNodes
+	 */
+	public static FigureNode parse(String filename, DefaultBuilder builder)
+	{
+		return (FigureNode) new JSONParser(builder).parse(FileUtilities.readFileFilterComments(filename));
+	}
+
+	/**
+	 * @param figureStr -- JSON figure text
+	 * @return the figure built by a GeometryBuilder
+	 */
+	public static FigureNode parseText(String figureStr)
+	{
+		return (FigureNode) new JSONParser(new GeometryBuilder()).parse(figureStr);
+	}
+}
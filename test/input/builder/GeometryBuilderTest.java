@@ -0,0 +1,49 @@
+package input.builder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.parser.JSONParser;
+
+class GeometryBuilderTest {
+	@Test
+	void buildPointNode_notInterned()
+	{
+		GeometryBuilder builder = new GeometryBuilder();
+
+		assertNotSame(builder.buildPointNode("A", 1, 2), builder.buildPointNode("A", 1, 2));
+		assertEquals(0, builder.numInternedPoints());
+	}
+
+	@Test
+	void buildPointNode_interned()
+	{
+		GeometryBuilder builder = GeometryBuilder.interning();
+		PointNode a = builder.buildPointNode("A", 1, 2);
+
+		assertSame(a, builder.buildPointNode("A", 1, 2));
+		// a different name or coordinate is a different point
+		assertNotSame(a, builder.buildPointNode("B", 1, 2));
+		assertNotSame(a, builder.buildPointNode("A", 1, 2.0000001));
+		assertEquals(3, builder.numInternedPoints());
+	}
+
+	@Test
+	void parse_sharesPointsAcrossFigures()
+	{
+		GeometryBuilder builder = new GeometryBuilder(PointNodeDatabase.NamePolicy.REJECT, true);
+		JSONParser parser = new JSONParser(builder);
+		String figureStr = utilities.io.FileUtilities.readFileFilterComments("square_tri.json");
+
+		FigureNode first = (FigureNode) parser.parse(figureStr);
+		FigureNode second = (FigureNode) parser.parse(figureStr);
+
+		assertNotSame(first, second);
+		assertSame(first.getPointsDatabase().getPoint("E"), second.getPointsDatabase().getPoint("E"));
+		assertEquals(5, builder.numInternedPoints());
+	}
+}
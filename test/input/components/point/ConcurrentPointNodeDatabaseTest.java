@@ -0,0 +1,238 @@
+package input.components.point;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import utilities.math.MathUtilities;
+import utilities.spatial.SpatialGrid;
+
+class ConcurrentPointNodeDatabaseTest {
+	private static final int THREADS = 8;
+
+	@Test
+	void putIfAbsent_returnsCanonicalPoint()
+	{
+		ConcurrentPointNodeDatabase pdb = new ConcurrentPointNodeDatabase();
+		PointNode a = pdb.putIfAbsent(1.0, 2.0, "A");
+
+		assertEquals("A", a.getName());
+		assertSame(a, pdb.putIfAbsent(1.0 + MathUtilities.EPSILON / 2, 2.0, "B"));
+		assertSame(a, pdb.getPoint("A"));
+		assertNull(pdb.getPoint("B"));
+		assertEquals(new PointNode(0, 0).getName(), pdb.putIfAbsent(5.0, 5.0, null).getName());
+		assertEquals(2, pdb.getPoints().size());
+	}
+
+	@Test
+	void getPoints_keepsInsertionOrder()
+	{
+		PointNode a = new PointNode("A", 5.0, 5.0);
+		PointNode b = new PointNode("B", -1.0, 2.0);
+		PointNode c = new PointNode("C", 0.0, 0.0);
+		ConcurrentPointNodeDatabase pdb = new ConcurrentPointNodeDatabase(Arrays.asList(a, b, c, new PointNode("D", 0.0, 0.0)),
+				PointNodeDatabase.NamePolicy.FIRST_WINS);
+
+		assertArrayEquals(new PointNode[] { a, b, c }, pdb.getPoints().toArray());
+		assertTrue(pdb.getPoints().contains(new PointNode(-1.0, 2.0)));
+		assertArrayEquals(new PointNode[] { a, b, c }, pdb.freeze().getPoints().toArray());
+	}
+
+	@Test
+	void parallelPuts_agreeOnOnePointPerCoordinate() throws Exception
+	{
+		ConcurrentPointNodeDatabase pdb = new ConcurrentPointNodeDatabase();
+		int side = 60;
+		double jitter = MathUtilities.EPSILON / 4;
+
+		// every thread adds every lattice point, slightly moved, in its own order
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<PointNode[]>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++)
+		{
+			int seed = t;
+			futures.add(pool.submit(() -> {
+				Random random = new Random(seed);
+				List<Integer> order = new ArrayList<>();
+				for (int i = 0; i < side * side; i++) order.add(i);
+				Collections.shuffle(order, random);
+
+				PointNode[] got = new PointNode[side * side];
+				start.await();
+				for (int i : order)
+				{
+					// lattice points straddle lock region borders as well as grid cells
+					double x = (i % side) * 31 * MathUtilities.EPSILON + (random.nextDouble() - 0.5) * jitter;
+					double y = (i / side) * 31 * MathUtilities.EPSILON + (random.nextDouble() - 0.5) * jitter;
+					got[i] = pdb.putIfAbsent(x, y, "T" + seed + "_" + i);
+				}
+				return got;
+			}));
+		}
+		start.countDown();
+
+		List<PointNode[]> results = new ArrayList<>();
+		for (Future<PointNode[]> f : futures) results.add(f.get(30, TimeUnit.SECONDS));
+		pool.shutdown();
+
+		for (int i = 0; i < side * side; i++)
+		{
+			for (PointNode[] got : results) assertSame(results.get(0)[i], got[i]);
+		}
+		assertEquals(side * side, pdb.getPoints().size());
+		assertEquals(side * side, new HashSet<>(pdb.freeze().getPoints()).size());
+	}
+
+	@Test
+	void parallelPuts_rejectEachNameOnce() throws Exception
+	{
+		ConcurrentPointNodeDatabase pdb = new ConcurrentPointNodeDatabase(PointNodeDatabase.NamePolicy.REJECT);
+		AtomicInteger rejected = new AtomicInteger();
+
+		// every thread claims the same names at coordinates of its own
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++)
+		{
+			int thread = t;
+			futures.add(pool.submit(() -> {
+				for (int i = 0; i < 500; i++)
+				{
+					try
+					{
+						pdb.putIfAbsent(i, thread, "P" + i);
+					}
+					catch (IllegalArgumentException e)
+					{
+						rejected.incrementAndGet();
+					}
+				}
+			}));
+		}
+		for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+		pool.shutdown();
+
+		assertEquals(500, pdb.getPoints().size());
+		assertEquals((THREADS - 1) * 500, rejected.get());
+
+		Set<String> names = new HashSet<>();
+		for (PointNode p : pdb.getPoints())
+		{
+			assertTrue(names.add(p.getName()));
+			assertSame(p, pdb.getPoint(p.getName()));
+		}
+	}
+
+	@Test
+	void getPointsInRange_seesCurrentPoints()
+	{
+		ConcurrentPointNodeDatabase pdb = new ConcurrentPointNodeDatabase();
+		pdb.putIfAbsent(0, 0, "A");
+		assertEquals(1, pdb.getPointsInRange(-1, -1, 1, 1).size());
+
+		pdb.putIfAbsent(0.5, 0.5, "B");
+		assertEquals(2, pdb.getPointsInRange(-1, -1, 1, 1).size());
+		assertEquals("B", pdb.getNearestPoints(0.6, 0.6, 1).get(0).getName());
+	}
+
+	@Test
+	void remove_keepsInsertionOrder()
+	{
+		PointNode a = new PointNode("A", 5.0, 5.0);
+		PointNode b = new PointNode("B", -1.0, 2.0);
+		PointNode c = new PointNode("C", 0.0, 0.0);
+		ConcurrentPointNodeDatabase pdb = new ConcurrentPointNodeDatabase(Arrays.asList(a, b, c),
+				PointNodeDatabase.NamePolicy.FIRST_WINS);
+
+		assertTrue(pdb.remove(new PointNode(-1.0 + MathUtilities.EPSILON / 2, 2.0)));
+		assertFalse(pdb.remove(b));
+		assertArrayEquals(new PointNode[] { a, c }, pdb.getPoints().toArray());
+		assertEquals(2, pdb.getPoints().size());
+		assertNull(pdb.getPoint("B"));
+
+		PointNode d = pdb.putIfAbsent(-1.0, 2.0, "D");
+		assertArrayEquals(new PointNode[] { a, c, d }, pdb.getPoints().toArray());
+	}
+
+	@Test
+	void spatialIndex_followsParallelWriters() throws Exception
+	{
+		ConcurrentPointNodeDatabase pdb = new ConcurrentPointNodeDatabase();
+		pdb.putIfAbsent(0, 0, "A");
+		SpatialGrid<PointNode> index = pdb.getSpatialIndex();
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++)
+		{
+			int seed = t;
+			futures.add(pool.submit(() -> {
+				Random random = new Random(seed);
+				for (int i = 0; i < 5000; i++)
+				{
+					double x = random.nextInt(30), y = random.nextInt(30);
+					if (random.nextBoolean()) pdb.putIfAbsent(x, y, null);
+					else pdb.remove(new PointNode(x, y));
+					pdb.getPointsInRange(x - 1, y - 1, x + 1, y + 1);
+				}
+				return null;
+			}));
+		}
+		for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+		pool.shutdown();
+
+		// the same index object, brought up to date without a rebuild
+		assertSame(index, pdb.getSpatialIndex());
+		assertEquals(pdb.getPoints().size(), index.size());
+		assertEquals(new HashSet<>(pdb.getPoints()), new HashSet<>(pdb.getPointsInRange(-1, -1, 30, 30)));
+	}
+
+	@Test
+	void parallelPuts_keepEachThreadsOrder() throws Exception
+	{
+		ConcurrentPointNodeDatabase pdb = new ConcurrentPointNodeDatabase();
+
+		// thread t adds (0, t), (1, t), ... spread over many stripes
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++)
+		{
+			int thread = t;
+			futures.add(pool.submit(() -> {
+				start.await();
+				for (int i = 0; i < 2000; i++) pdb.putIfAbsent(i, thread, null);
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+		pool.shutdown();
+
+		double[] last = new double[THREADS];
+		Arrays.fill(last, -1);
+		for (PointNode p : pdb.getPoints())
+		{
+			int thread = (int) p.getY();
+			assertTrue(p.getX() > last[thread]);
+			last[thread] = p.getX();
+		}
+		for (double x : last) assertEquals(1999, x);
+		assertEquals(THREADS * 2000, pdb.getPoints().size());
+	}
+}
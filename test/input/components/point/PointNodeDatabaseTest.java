@@ -0,0 +1,168 @@
+package input.components.point;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import utilities.math.MathUtilities;
+
+class PointNodeDatabaseTest {
+	@Test
+	void getPoint_exact()
+	{
+		PointNodeDatabase pdb = new PointNodeDatabase();
+		PointNode a = new PointNode("A", 0.0, 0.0);
+		PointNode b = new PointNode("B", 3.5, -2.25);
+		pdb.put(a);
+		pdb.put(b);
+
+		assertSame(a, pdb.getPoint(0.0, 0.0));
+		assertSame(b, pdb.getPoint(3.5, -2.25));
+		assertNull(pdb.getPoint(1.0, 1.0));
+		assertEquals("B", pdb.getName(3.5, -2.25));
+	}
+
+	@Test
+	void getPoint_withinEpsilon_acrossCells()
+	{
+		PointNodeDatabase pdb = new PointNodeDatabase();
+		PointNode a = new PointNode("A", 1.0, 1.0);
+		pdb.put(a);
+
+		double half = MathUtilities.EPSILON / 2;
+
+		// these queries fall into the neighboring grid cells around A
+		assertSame(a, pdb.getPoint(1.0 - half, 1.0 + half));
+		assertSame(a, pdb.getPoint(1.0 + half, 1.0 - half));
+		assertTrue(pdb.contains(1.0 - half, 1.0 - half));
+
+		assertFalse(pdb.contains(1.0 + 2 * MathUtilities.EPSILON, 1.0));
+	}
+
+	@Test
+	void getPoints_keepsInsertionOrder()
+	{
+		PointNode a = new PointNode("A", 5.0, 5.0);
+		PointNode b = new PointNode("B", -1.0, 2.0);
+		PointNode c = new PointNode("C", 0.0, 0.0);
+		PointNodeDatabase pdb = new PointNodeDatabase(Arrays.asList(a, b, c));
+
+		assertArrayEquals(new PointNode[] { a, b, c }, pdb.getPoints().toArray());
+		assertSame(c, pdb.getPoint(new PointNode(0.0, 0.0)));
+	}
+
+	@Test
+	void getPoint_byName_firstWins()
+	{
+		PointNode a = new PointNode("A", 0.0, 0.0);
+		PointNode other = new PointNode("A", 1.0, 1.0);
+		PointNodeDatabase pdb = new PointNodeDatabase(Arrays.asList(a, other));
+
+		assertSame(a, pdb.getPoint("A"));
+		assertSame(other, pdb.getPoint(1.0, 1.0));
+		assertNull(pdb.getPoint("B"));
+	}
+
+	@Test
+	void getPoint_byName_reject()
+	{
+		PointNodeDatabase pdb = new PointNodeDatabase(PointNodeDatabase.NamePolicy.REJECT);
+		pdb.put(new PointNode("A", 0.0, 0.0));
+		pdb.put(new PointNode(1.0, 1.0));
+		pdb.put(new PointNode(2.0, 2.0));
+
+		assertThrows(IllegalArgumentException.class, () -> pdb.put(new PointNode("A", 1.0, 1.0)));
+		assertEquals(3, pdb.getPoints().size());
+	}
+
+	@Test
+	void spatialQueries_followPut()
+	{
+		PointNodeDatabase pdb = new PointNodeDatabase();
+		PointNode a = new PointNode("A", 0, 0);
+		PointNode b = new PointNode("B", 4, 0);
+		PointNode c = new PointNode("C", 4, 3);
+		pdb.put(a);
+		pdb.put(b);
+		pdb.put(c);
+
+		assertEquals(Arrays.asList(b, c), pdb.getPointsInRange(3, -1, 5, 3));
+		assertEquals(Arrays.asList(c, b), pdb.getNearestPoints(5, 3, 2));
+
+		// points put after the index exists are found too
+		PointNode d = new PointNode("D", 4.5, 2.5);
+		pdb.put(d);
+		pdb.put(new PointNode("copy of A", 0, 0));
+
+		assertEquals(4, pdb.getSpatialIndex().size());
+		assertEquals(Arrays.asList(d, c, b), pdb.getNearestPoints(5, 3, 3));
+		assertEquals(Arrays.asList(a), pdb.getPointsInRange(-1, -1, 1, 1));
+	}
+
+	@Test
+	void remove_dropsPointFromEveryIndex()
+	{
+		PointNodeDatabase pdb = new PointNodeDatabase();
+		PointNode a = new PointNode("A", 0, 0);
+		PointNode b = new PointNode("B", 4, 0);
+		pdb.put(a);
+		pdb.put(b);
+		assertEquals(2, pdb.getSpatialIndex().size());
+
+		assertTrue(pdb.remove(new PointNode(MathUtilities.EPSILON / 2, 0)));
+		assertFalse(pdb.remove(a));
+
+		assertNull(pdb.getPoint(0, 0));
+		assertNull(pdb.getPoint("A"));
+		assertArrayEquals(new PointNode[] { b }, pdb.getPoints().toArray());
+		assertTrue(pdb.getPointsInRange(-1, -1, 1, 1).isEmpty());
+
+		// the name and coordinates can be taken again
+		PointNode other = new PointNode("A", 0, 0);
+		pdb.put(other);
+		assertSame(other, pdb.getPoint("A"));
+		assertThrows(UnsupportedOperationException.class, () -> pdb.freeze().remove(b));
+	}
+
+	@Test
+	void freeze_keepsNameIndex()
+	{
+		PointNodeDatabase pdb = new PointNodeDatabase();
+		PointNode first = new PointNode("A", 0, 0);
+		PointNode second = new PointNode("A", 1, 1);
+		PointNode b = new PointNode("B", 2, 2);
+		pdb.put(first);
+		pdb.put(second);
+		pdb.put(b);
+		pdb.remove(first);
+
+		// the name went with the removed point and the second "A" never had it
+		assertNull(pdb.getPoint("A"));
+
+		FrozenPointNodeDatabase frozen = pdb.freeze();
+		assertNull(frozen.getPoint("A"));
+		assertSame(b, frozen.getPoint("B"));
+		assertSame(second, frozen.getPoint(1, 1));
+		assertArrayEquals(new PointNode[] { second, b }, frozen.getPoints().toArray());
+		assertThrows(UnsupportedOperationException.class, () -> frozen.put(new PointNode(5, 5)));
+	}
+
+	@Test
+	void spatialIndex_builtEmpty_growsForFarPoints()
+	{
+		PointNodeDatabase pdb = new PointNodeDatabase();
+		assertEquals(0, pdb.getSpatialIndex().size());
+
+		PointNode a = new PointNode("A", 0, 0);
+		PointNode b = new PointNode("B", 1e6, 0);
+		pdb.put(a);
+		pdb.put(b);
+
+		assertEquals(Arrays.asList(a, b), assertTimeoutPreemptively(Duration.ofSeconds(10),
+				() -> pdb.getNearestPoints(0, 0, 2)));
+		assertEquals(Arrays.asList(b), pdb.getPointsInRange(1e6 - 1, -1, 1e6 + 1, 1));
+	}
+}
@@ -0,0 +1,52 @@
+package input.components.point;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class PointNodeTest {
+	@Test
+	void hashCode_consistentWithEquals()
+	{
+		PointNode a = new PointNode("A", 1.5, -2.25);
+		PointNode b = new PointNode("B", 1.5, -2.25);
+		PointNode c = new PointNode(1.5000001, -2.2500001);
+
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		assertEquals(a, c);
+		assertEquals(a.hashCode(), c.hashCode());
+		assertEquals(a.hashCode(), a.hashCode());
+		assertEquals(new PointNode(0.0, 0.0).hashCode(), new PointNode(-0.0, 0.0).hashCode());
+	}
+
+	@Test
+	void hashCode_spreadsIntegerGrid()
+	{
+		// whole-number coordinates used to share most of their hash bits
+		Set<Integer> hashes = new HashSet<>();
+		Set<Integer> buckets = new HashSet<>();
+		for (int x = 0; x < 100; x++)
+		{
+			for (int y = 0; y < 100; y++)
+			{
+				int h = new PointNode(x, y).hashCode();
+				hashes.add(h);
+				buckets.add((h ^ (h >>> 16)) & 16383);
+			}
+		}
+
+		assertEquals(10000, hashes.size());
+		assertTrue(buckets.size() > 7000, "buckets used: " + buckets.size());
+	}
+
+	@Test
+	void hashCode_largeCoordinates()
+	{
+		// coordinates past the int range of the truncated value still hash apart
+		assertNotEquals(new PointNode(100000, 0).hashCode(), new PointNode(200000, 0).hashCode());
+	}
+}
@@ -0,0 +1,293 @@
+package input.components.segment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import geometry.FigurePolygons;
+import geometry.PolygonFinder;
+import input.FigureFixtures;
+import input.builder.ConcurrentGeometryBuilder;
+import input.components.FigureNode;
+import input.components.point.ConcurrentPointNodeDatabase;
+import input.components.point.PointNode;
+import utilities.spatial.SpatialGrid;
+
+class ConcurrentSegmentNodeDatabaseTest {
+	private static final int THREADS = 8;
+
+	private static List<PointNode> grid(int n)
+	{
+		List<PointNode> points = new ArrayList<>();
+		for (int i = 0; i < n; i++) points.add(new PointNode("P" + i, i % 10, i / 10));
+		return points;
+	}
+
+	/**
+	 * Every directed edge has its reverse, and the edge count matches the lists
+	 */
+	private static void assertConsistent(SegmentNodeDatabase db)
+	{
+		int directed = 0, loops = 0;
+		for (Entry<PointNode, Set<PointNode>> entry : db.entrySet())
+		{
+			for (PointNode b : entry.getValue())
+			{
+				directed++;
+				if (b.equals(entry.getKey())) loops++;
+				assertTrue(db.asSegmentList().contains(new SegmentNode(b, entry.getKey())));
+			}
+		}
+		assertEquals((directed - loops) / 2 + loops, db.numUndirectedEdges());
+	}
+
+	@Test
+	void parallelAdds_countEachEdgeOnce() throws Exception
+	{
+		List<PointNode> points = grid(100);
+		ConcurrentSegmentNodeDatabase db = new ConcurrentSegmentNodeDatabase();
+
+		// every thread adds the same edges in its own order and direction
+		Set<SegmentNode> expected = new HashSet<>();
+		Random random = new Random(23);
+		List<PointNode[]> edges = new ArrayList<>();
+		for (int i = 0; i < 2000; i++)
+		{
+			PointNode a = points.get(random.nextInt(100)), b = points.get(random.nextInt(100));
+			edges.add(new PointNode[] { a, b });
+			expected.add(new SegmentNode(a, b));
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++)
+		{
+			int seed = t;
+			futures.add(pool.submit(() -> {
+				List<PointNode[]> mine = new ArrayList<>(edges);
+				Collections.shuffle(mine, new Random(seed));
+				start.await();
+				for (PointNode[] e : mine)
+				{
+					if (seed % 2 == 0) db.addUndirectedEdge(e[0], e[1]);
+					else db.addUndirectedEdge(e[1], e[0]);
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+		pool.shutdown();
+
+		assertEquals(expected.size(), db.numUndirectedEdges());
+		assertEquals(expected, new HashSet<>(db.asUniqueSegmentList()));
+		assertConsistent(db.snapshot());
+	}
+
+	@Test
+	void snapshots_neverSeeHalfAnEdge() throws Exception
+	{
+		List<PointNode> points = grid(60);
+		ConcurrentSegmentNodeDatabase db = new ConcurrentSegmentNodeDatabase();
+		AtomicBoolean done = new AtomicBoolean();
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> writers = new ArrayList<>();
+		for (int t = 0; t < THREADS - 1; t++)
+		{
+			int seed = t;
+			writers.add(pool.submit(() -> {
+				Random random = new Random(seed);
+				for (int i = 0; i < 20000; i++)
+				{
+					PointNode a = points.get(random.nextInt(60)), b = points.get(random.nextInt(60));
+					if (random.nextBoolean()) db.addUndirectedEdge(a, b);
+					else db.removeUndirectedEdge(b, a);
+				}
+				return null;
+			}));
+		}
+
+		Future<Integer> reader = pool.submit(() -> {
+			int snapshots = 0;
+			while (!done.get())
+			{
+				assertConsistent(db.snapshot());
+				snapshots++;
+			}
+			return snapshots;
+		});
+
+		for (Future<?> f : writers) f.get(60, TimeUnit.SECONDS);
+		done.set(true);
+		assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+		pool.shutdown();
+
+		assertConsistent(db.snapshot());
+		assertEquals(db.snapshot().numUndirectedEdges(), db.numUndirectedEdges());
+	}
+
+	/**
+	 * Every directed edge in the entries has its reverse
+	 */
+	private static void assertSymmetric(Set<Entry<PointNode, Set<PointNode>>> entries)
+	{
+		Map<PointNode, Set<PointNode>> lists = new HashMap<>();
+		for (Entry<PointNode, Set<PointNode>> entry : entries) lists.put(entry.getKey(), entry.getValue());
+
+		for (Entry<PointNode, Set<PointNode>> entry : entries)
+		{
+			for (PointNode b : entry.getValue())
+			{
+				assertTrue(lists.containsKey(b) && lists.get(b).contains(entry.getKey()));
+			}
+		}
+	}
+
+	@Test
+	void liveReads_neverSeeHalfAnEdge() throws Exception
+	{
+		List<PointNode> points = grid(60);
+		ConcurrentSegmentNodeDatabase db = new ConcurrentSegmentNodeDatabase();
+		FigurePolygons polygons = new FigurePolygons(new FigureNode("live", null, db));
+		AtomicBoolean done = new AtomicBoolean();
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> writers = new ArrayList<>();
+		for (int t = 0; t < THREADS - 1; t++)
+		{
+			int seed = t;
+			writers.add(pool.submit(() -> {
+				Random random = new Random(seed);
+				for (int i = 0; i < 20000; i++)
+				{
+					PointNode a = points.get(random.nextInt(60)), b = points.get(random.nextInt(60));
+					if (random.nextBoolean()) db.addUndirectedEdge(a, b);
+					else db.removeUndirectedEdge(b, a);
+				}
+				return null;
+			}));
+		}
+
+		Future<Integer> reader = pool.submit(() -> {
+			int reads = 0;
+			while (!done.get())
+			{
+				assertSymmetric(db.entrySet());
+				Map<SegmentNode, Integer> directions = new HashMap<>();
+				for (SegmentNode s : db.asSegmentList()) directions.merge(s, 1, Integer::sum);
+				for (Entry<SegmentNode, Integer> entry : directions.entrySet())
+				{
+					SegmentNode s = entry.getKey();
+					assertEquals(s.getPoint1().equals(s.getPoint2()) ? 1 : 2, entry.getValue());
+				}
+				assertNotNull(polygons.getTriangles());
+				assertNotNull(polygons.getFaces());
+				db.getSegmentsInRange(0, 0, 4, 4);
+				reads++;
+			}
+			return reads;
+		});
+
+		for (Future<?> f : writers) f.get(60, TimeUnit.SECONDS);
+		done.set(true);
+		assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+		pool.shutdown();
+
+		assertSymmetric(db.entrySet());
+	}
+
+	@Test
+	void spatialIndex_followsParallelWriters() throws Exception
+	{
+		List<PointNode> points = grid(100);
+		ConcurrentSegmentNodeDatabase db = new ConcurrentSegmentNodeDatabase();
+		db.addUndirectedEdge(points.get(0), points.get(1));
+		SpatialGrid<SegmentNode> index = db.getSpatialIndex();
+		assertEquals(1, index.size());
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++)
+		{
+			int seed = t;
+			futures.add(pool.submit(() -> {
+				Random random = new Random(seed);
+				for (int i = 0; i < 5000; i++)
+				{
+					PointNode a = points.get(random.nextInt(100)), b = points.get(random.nextInt(100));
+					if (random.nextBoolean()) db.addUndirectedEdge(a, b);
+					else db.removeUndirectedEdge(b, a);
+					db.getSegmentsInRange(a.getX(), a.getY(), a.getX(), a.getY());
+				}
+				return null;
+			}));
+		}
+		for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+		pool.shutdown();
+
+		// the same index object, brought up to date without a rebuild
+		assertSame(index, db.getSpatialIndex());
+		assertEquals(db.numUndirectedEdges(), index.size());
+		assertEquals(new HashSet<>(db.asUniqueSegmentList()), new HashSet<>(db.getSegmentsInRange(-1, -1, 10, 10)));
+	}
+
+	@Test
+	void parallelRemoves() throws Exception
+	{
+		List<PointNode> points = grid(50);
+		ConcurrentSegmentNodeDatabase db = new ConcurrentSegmentNodeDatabase();
+		for (int i = 0; i < 50; i++)
+			for (int j = i; j < 50; j++)
+				db.addUndirectedEdge(points.get(i), points.get(j));
+		assertEquals(50 * 51 / 2, db.numUndirectedEdges());
+
+		// each thread removes the edges of its own points; shared edges race
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++)
+		{
+			int offset = t;
+			futures.add(pool.submit(() -> {
+				for (int i = offset; i < 50; i += THREADS / 2)
+					for (PointNode b : points)
+						db.removeUndirectedEdge(points.get(i), b);
+				return null;
+			}));
+		}
+		for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+		pool.shutdown();
+
+		assertEquals(0, db.numUndirectedEdges());
+		assertTrue(db.entrySet().isEmpty());
+	}
+
+	@Test
+	void builder_buildsConcurrentDatabase()
+	{
+		FigureNode figure = FigureFixtures.parse("pizza.json", new ConcurrentGeometryBuilder());
+
+		assertTrue(figure.getSegments() instanceof ConcurrentSegmentNodeDatabase);
+		assertTrue(figure.getPointsDatabase() instanceof ConcurrentPointNodeDatabase);
+		assertEquals(12, figure.getSegments().numUndirectedEdges());
+		assertEquals(6, PolygonFinder.findTriangles(figure.getSegments()).size());
+		assertEquals(12, figure.freeze().getSegments().numUndirectedEdges());
+	}
+}
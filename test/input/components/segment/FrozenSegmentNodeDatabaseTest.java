@@ -0,0 +1,91 @@
+package input.components.segment;
+
+import static input.FigureFixtures.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+
+class FrozenSegmentNodeDatabaseTest {
+	@Test
+	void freeze_sameAdjacencyLists()
+	{
+		FigureNode figure = parse("pizza.json");
+		SegmentNodeDatabase sdb = figure.getSegments();
+		FrozenSegmentNodeDatabase frozen = sdb.freeze(figure.getPointsDatabase());
+
+		assertEquals(sdb.numUndirectedEdges(), frozen.numUndirectedEdges());
+		assertEquals(sdb.entrySet().size(), frozen.entrySet().size());
+
+		Map<PointNode, Set<PointNode>> expected = new HashMap<>();
+		for (Entry<PointNode, Set<PointNode>> entry : sdb.entrySet()) expected.put(entry.getKey(), entry.getValue());
+		for (Entry<PointNode, Set<PointNode>> entry : frozen.entrySet())
+		{
+			assertEquals(expected.get(entry.getKey()), entry.getValue());
+		}
+
+		assertEquals(new HashSet<>(sdb.asSegmentList()), new HashSet<>(frozen.asSegmentList()));
+		assertEquals(new HashSet<>(sdb.asUniqueSegmentList()), new HashSet<>(frozen.asUniqueSegmentList()));
+		assertEquals(sdb.numUndirectedEdges(), frozen.asUniqueSegmentList().size());
+	}
+
+	@Test
+	void freeze_idsFollowPointDatabase()
+	{
+		FigureNode figure = parse("single_triangle.json");
+		FrozenSegmentNodeDatabase frozen = figure.getSegments().freeze(figure.getPointsDatabase());
+
+		int id = 0;
+		for (PointNode p : figure.getPointsDatabase().getPoints())
+		{
+			assertSame(p, frozen.getPoint(id));
+			assertEquals(figure.getSegments().entrySet().stream()
+					.filter(e -> e.getKey().equals(p)).findFirst().get().getValue().size(), frozen.degree(id));
+			id++;
+		}
+		assertEquals(id, frozen.numPoints());
+	}
+
+	@Test
+	void freeze_isReadOnly()
+	{
+		SegmentNodeDatabase sdb = new SegmentNodeDatabase();
+		sdb.addUndirectedEdge(new PointNode("A", 0.0, 0.0), new PointNode("B", 1.0, 0.0));
+		FrozenSegmentNodeDatabase frozen = sdb.freeze();
+
+		assertSame(frozen, frozen.freeze());
+		assertEquals(1, frozen.neighbor(0, 0));
+		assertThrows(UnsupportedOperationException.class,
+				() -> frozen.addUndirectedEdge(new PointNode(2.0, 2.0), new PointNode(3.0, 3.0)));
+	}
+
+	@Test
+	void getNeighbors_viewsTheArrays()
+	{
+		FigureNode figure = parse("pizza.json");
+		SegmentNodeDatabase sdb = figure.getSegments();
+		FrozenSegmentNodeDatabase frozen = sdb.freeze(figure.getPointsDatabase());
+
+		for (PointNode p : figure.getPointsDatabase().getPoints())
+		{
+			int id = frozen.getId(p);
+			assertSame(p, frozen.getPoint(id));
+			assertEquals(sdb.getNeighbors(p), frozen.getNeighbors(p));
+			assertEquals(frozen.degree(id), frozen.getNeighbors(p).size());
+		}
+
+		PointNode missing = new PointNode(1000.0, 1000.0);
+		assertEquals(-1, frozen.getId(missing));
+		assertTrue(frozen.getNeighbors(missing).isEmpty());
+		assertThrows(UnsupportedOperationException.class,
+				() -> frozen.getNeighbors(frozen.getPoint(0)).clear());
+	}
+}
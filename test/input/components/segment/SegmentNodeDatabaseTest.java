@@ -0,0 +1,170 @@
+package input.components.segment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.Spliterator;
+
+import org.junit.jupiter.api.Test;
+
+import input.components.point.PointNode;
+
+class SegmentNodeDatabaseTest {
+	private static final PointNode A = new PointNode("A", 0.0, 0.0);
+	private static final PointNode B = new PointNode("B", 1.0, 0.0);
+	private static final PointNode C = new PointNode("C", 0.0, 1.0);
+
+	@Test
+	void numUndirectedEdges_duplicates()
+	{
+		SegmentNodeDatabase sdb = new SegmentNodeDatabase();
+		assertEquals(0, sdb.numUndirectedEdges());
+
+		sdb.addUndirectedEdge(A, B);
+		sdb.addUndirectedEdge(B, A);
+		sdb.addUndirectedEdge(A, new PointNode("B'", 1.0, 0.0));
+		assertEquals(1, sdb.numUndirectedEdges());
+
+		sdb.addUndirectedEdge(B, C);
+		sdb.addUndirectedEdge(C, A);
+		assertEquals(3, sdb.numUndirectedEdges());
+	}
+
+	@Test
+	void numUndirectedEdges_selfLoop()
+	{
+		SegmentNodeDatabase sdb = new SegmentNodeDatabase();
+		sdb.addUndirectedEdge(A, A);
+		sdb.addUndirectedEdge(A, A);
+		assertEquals(1, sdb.numUndirectedEdges());
+
+		sdb.addUndirectedEdge(A, B);
+		assertEquals(2, sdb.numUndirectedEdges());
+	}
+
+	@Test
+	void numUndirectedEdges_fromMap()
+	{
+		Map<PointNode, Set<PointNode>> adjLists = new HashMap<>();
+		adjLists.put(A, Set.of(A, B, C));
+		adjLists.put(B, Set.of(A));
+		adjLists.put(C, Set.of(A));
+
+		SegmentNodeDatabase sdb = new SegmentNodeDatabase(adjLists);
+		assertEquals(3, sdb.numUndirectedEdges());
+	}
+
+	@Test
+	void uniqueAdjacencyLists_eachEdgeOnce()
+	{
+		PointNode d = new PointNode("D", 1.0, 1.0);
+		SegmentNodeDatabase sdb = new SegmentNodeDatabase();
+		sdb.addUndirectedEdge(A, B);
+		sdb.addUndirectedEdge(B, C);
+		sdb.addUndirectedEdge(C, A);
+		sdb.addUndirectedEdge(A, d);
+		sdb.addUndirectedEdge(d, d);
+
+		Set<SegmentNode> seen = new HashSet<>();
+		int count = 0;
+		for (Entry<PointNode, Iterable<PointNode>> entry : sdb.uniqueAdjacencyLists())
+		{
+			for (PointNode b : entry.getValue())
+			{
+				assertTrue(SegmentNodeDatabase.isCanonical(entry.getKey(), b));
+				seen.add(new SegmentNode(entry.getKey(), b));
+				count++;
+			}
+		}
+
+		assertEquals(sdb.numUndirectedEdges(), count);
+		assertEquals(count, seen.size());
+		assertEquals(count, sdb.asUniqueSegmentList().size());
+		assertEquals(3, sdb.uniqueEntrySet().size());
+	}
+
+	@Test
+	void uniqueAdjacencyLists_splitsLikeTheIterator()
+	{
+		SegmentNodeDatabase sdb = new SegmentNodeDatabase();
+		for (int i = 0; i < 2000; i++)
+		{
+			sdb.addUndirectedEdge(new PointNode(i, 0.0), new PointNode(i + 1, 0.0));
+		}
+
+		List<PointNode> expected = new ArrayList<>();
+		for (Entry<PointNode, Iterable<PointNode>> entry : sdb.uniqueAdjacencyLists()) expected.add(entry.getKey());
+
+		Spliterator<Entry<PointNode, Iterable<PointNode>>> rest = sdb.uniqueAdjacencyLists().spliterator();
+		Spliterator<Entry<PointNode, Iterable<PointNode>>> prefix = rest.trySplit();
+		assertNotNull(prefix);
+
+		List<PointNode> actual = new ArrayList<>();
+		prefix.forEachRemaining(entry -> actual.add(entry.getKey()));
+		rest.forEachRemaining(entry -> actual.add(entry.getKey()));
+		assertEquals(expected, actual);
+		assertEquals(2000, expected.size());
+	}
+
+	@Test
+	void removeUndirectedEdge()
+	{
+		SegmentNodeDatabase sdb = new SegmentNodeDatabase();
+		sdb.addUndirectedEdge(A, B);
+		sdb.addUndirectedEdge(B, C);
+		sdb.addUndirectedEdge(C, C);
+
+		assertTrue(sdb.removeUndirectedEdge(B, A));
+		assertFalse(sdb.removeUndirectedEdge(A, B));
+		assertEquals(2, sdb.numUndirectedEdges());
+		// A has no edges left, so it is no longer listed
+		assertEquals(2, sdb.entrySet().size());
+
+		assertTrue(sdb.removeUndirectedEdge(C, C));
+		assertEquals(1, sdb.numUndirectedEdges());
+		assertEquals(sdb.numUndirectedEdges(), sdb.asUniqueSegmentList().size());
+	}
+
+	@Test
+	void getSegmentsInRange()
+	{
+		SegmentNodeDatabase sdb = new SegmentNodeDatabase();
+		sdb.addUndirectedEdge(A, B);
+		sdb.addUndirectedEdge(B, C);
+		sdb.addUndirectedEdge(C, A);
+
+		Set<SegmentNode> all = new HashSet<>(sdb.getSegmentsInRange(-100, -100, 100, 100));
+		assertEquals(new HashSet<>(sdb.asUniqueSegmentList()), all);
+
+		// the index follows edges added and removed afterwards
+		PointNode d = new PointNode("D", 50, 50);
+		sdb.addUndirectedEdge(C, d);
+		assertEquals(4, sdb.getSpatialIndex().size());
+		assertTrue(sdb.getSegmentsInRange(49, 49, 51, 51).contains(new SegmentNode(C, d)));
+
+		sdb.removeUndirectedEdge(d, C);
+		assertTrue(sdb.getSegmentsInRange(49, 49, 51, 51).isEmpty());
+		assertEquals(3, sdb.getSpatialIndex().size());
+	}
+
+	@Test
+	void spatialIndex_builtEmpty_growsForLongSegments()
+	{
+		SegmentNodeDatabase sdb = new SegmentNodeDatabase();
+		assertEquals(0, sdb.getSpatialIndex().size());
+
+		PointNode far = new PointNode("far", 1e6, 1e6);
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> sdb.addUndirectedEdge(A, far));
+		sdb.addUndirectedEdge(B, C);
+
+		assertEquals(2, sdb.getSpatialIndex().size());
+		assertEquals(List.of(new SegmentNode(A, far)), sdb.getSegmentsInRange(5e5 - 1, 5e5 - 1, 5e5 + 1, 5e5 + 1));
+	}
+}
@@ -0,0 +1,54 @@
+package input.components.segment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import input.FigureFixtures;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+
+class SegmentNodeTest {
+	@Test
+	void hashCode_symmetric()
+	{
+		PointNode a = new PointNode("A", 2.0, 0.0);
+		PointNode b = new PointNode("B", -4.5, 3.25);
+
+		assertEquals(new SegmentNode(a, b), new SegmentNode(b, a));
+		assertEquals(new SegmentNode(a, b).hashCode(), new SegmentNode(b, a).hashCode());
+	}
+
+	@Test
+	void hashCode_origin()
+	{
+		PointNode origin = new PointNode("O", 0.0, 0.0);
+		Set<Integer> hashes = new HashSet<>();
+
+		for (int i = 1; i <= 10; i++)
+		{
+			hashes.add(new SegmentNode(origin, new PointNode(i, i * 2.0)).hashCode());
+		}
+
+		// segments from the origin used to all hash to 0
+		assertEquals(10, hashes.size());
+	}
+
+	@Test
+	void hashCode_distinct_in_figure()
+	{
+		FigureNode figure = FigureFixtures.parse("fully_connected_irregular_polygon.json");
+
+		List<SegmentNode> segments = figure.getSegments().asUniqueSegmentList();
+		Set<Integer> hashes = new HashSet<>();
+		for (SegmentNode segment : segments) hashes.add(segment.hashCode());
+
+		assertEquals(10, segments.size());
+		assertEquals(segments.size(), hashes.size());
+		assertEquals(segments.size(), new HashSet<>(figure.getSegments().asSegmentList()).size());
+	}
+}
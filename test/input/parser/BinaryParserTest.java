@@ -0,0 +1,156 @@
+package input.parser;
+
+import static input.FigureFixtures.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import input.builder.DefaultBuilder;
+import input.builder.GeometryBuilder;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNode;
+import input.exception.ParseException;
+import input.visitor.BinaryWriterVisitor;
+
+class BinaryParserTest {
+	private static byte[] write(FigureNode... figures)
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryWriterVisitor writer = new BinaryWriterVisitor(out);
+		for (FigureNode figure : figures) figure.accept(writer, null);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Points are compared in order with their names; segments by the names of their endpoints
+	 */
+	private static void assertSameFigure(FigureNode expected, FigureNode actual, String message)
+	{
+		assertEquals(expected.getDescription(), actual.getDescription(), message);
+
+		List<PointNode> e = new ArrayList<>(expected.getPointsDatabase().getPoints());
+		List<PointNode> a = new ArrayList<>(actual.getPointsDatabase().getPoints());
+		assertEquals(e.size(), a.size(), message);
+		for (int i = 0; i < e.size(); i++)
+		{
+			assertEquals(e.get(i).getName(), a.get(i).getName(), message);
+			assertEquals(e.get(i).getX(), a.get(i).getX(), message);
+			assertEquals(e.get(i).getY(), a.get(i).getY(), message);
+		}
+
+		assertEquals(names(expected.getSegments().asSegmentList()), names(actual.getSegments().asSegmentList()), message);
+		assertEquals(expected.getSegments().numUndirectedEdges(), actual.getSegments().numUndirectedEdges(), message);
+	}
+
+	private static Set<String> names(List<SegmentNode> segments)
+	{
+		Set<String> names = new HashSet<>();
+		for (SegmentNode s : segments) names.add(s.getPoint1().getName() + "-" + s.getPoint2().getName());
+		return names;
+	}
+
+	@Test
+	void roundTrip_everySample() throws IOException
+	{
+		List<Path> samples;
+		try (Stream<Path> files = Files.list(Path.of(".")))
+		{
+			samples = files.filter(p -> p.toString().endsWith(".json")).sorted().toList();
+		}
+		assertFalse(samples.isEmpty());
+
+		for (Path sample : samples)
+		{
+			FigureNode figure = parse(sample.toString());
+			FigureNode copy = (FigureNode) new BinaryParser(new GeometryBuilder()).parse(ByteBuffer.wrap(write(figure)));
+
+			assertSameFigure(figure, copy, sample.toString());
+		}
+	}
+
+	@Test
+	void parse_mappedFile(@TempDir Path dir) throws IOException
+	{
+		FigureNode figure = parse("pizza.json");
+		Path file = dir.resolve("pizza.fig");
+		Files.write(file, write(figure));
+
+		FigureNode copy = (FigureNode) new BinaryParser(new GeometryBuilder()).parse(file);
+
+		assertSameFigure(figure, copy, "pizza");
+	}
+
+	@Test
+	void parse_consecutiveFigures()
+	{
+		FigureNode first = parse("square_tri.json");
+		FigureNode second = parse("tri_snake.json");
+		ByteBuffer buffer = ByteBuffer.wrap(write(first, second));
+
+		BinaryParser parser = new BinaryParser(new GeometryBuilder());
+		assertSameFigure(first, (FigureNode) parser.parse(buffer), "first");
+		assertSameFigure(second, (FigureNode) parser.parse(buffer), "second");
+		assertFalse(buffer.hasRemaining());
+	}
+
+	@Test
+	void parse_defaultBuilder()
+	{
+		byte[] bytes = write(parse("fully_connected_irregular_polygon.json"));
+
+		assertNull(new BinaryParser(new DefaultBuilder()).parse(ByteBuffer.wrap(bytes)));
+	}
+
+	@Test
+	void parse_invalid()
+	{
+		byte[] bytes = write(parse("single_triangle.json"));
+		BinaryParser parser = new BinaryParser(new GeometryBuilder());
+
+		assertThrows(ParseException.class, () -> parser.parse(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 })));
+		assertThrows(ParseException.class, () -> parser.parse(ByteBuffer.wrap(bytes, 0, bytes.length - 3).slice()));
+
+		bytes[5]++;
+		ParseException e = assertThrows(ParseException.class, () -> parser.parse(ByteBuffer.wrap(bytes)));
+		assertTrue(e.getMessage().contains("version"));
+	}
+
+	@Test
+	void parse_segmentsUseDatabasePoints()
+	{
+		// a builder whose point database holds copies of the points it is given
+		GeometryBuilder copying = new GeometryBuilder()
+		{
+			@Override
+			public PointNodeDatabase buildPointDatabaseNode(List<PointNode> points)
+			{
+				List<PointNode> copies = new ArrayList<>();
+				for (PointNode p : points) copies.add(new PointNode(p.getName(), p.getX(), p.getY()));
+				return super.buildPointDatabaseNode(copies);
+			}
+		};
+
+		FigureNode copy = (FigureNode) new BinaryParser(copying).parse(ByteBuffer.wrap(write(parse("pizza.json"))));
+
+		assertEquals(12, copy.getSegments().numUndirectedEdges());
+		for (SegmentNode segment : copy.getSegments().asSegmentList())
+		{
+			assertSame(copy.getPointsDatabase().getPoint(segment.getPoint1()), segment.getPoint1());
+			assertSame(copy.getPointsDatabase().getPoint(segment.getPoint2()), segment.getPoint2());
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package input.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import geometry.PolygonFinder;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.exception.ParseException;
+
+class FigureCacheTest {
+	private static Path copy(String sample, Path dir) throws IOException
+	{
+		return Files.copy(Path.of(sample), dir.resolve(sample));
+	}
+
+	@Test
+	void load_hitAndMiss(@TempDir Path dir) throws IOException
+	{
+		Path pizza = copy("pizza.json", dir);
+		FigureCache cache = new FigureCache(10, Long.MAX_VALUE);
+
+		FigureNode first = cache.load(pizza);
+		FigureNode second = cache.load(pizza);
+
+		assertSame(first, second);
+		assertEquals(7, first.getPointsDatabase().getPoints().size());
+		assertEquals(1, cache.getStats().getMissCount());
+		assertEquals(1, cache.getStats().getHitCount());
+		assertEquals(0.5, cache.getStats().getHitRate());
+	}
+
+	@Test
+	void load_followsContent(@TempDir Path dir) throws IOException
+	{
+		Path file = copy("single_triangle.json", dir);
+		FigureCache cache = new FigureCache(10, Long.MAX_VALUE);
+		FigureNode triangle = cache.load(file);
+
+		// touched but unchanged: read again, found by digest
+		Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+		assertSame(triangle, cache.load(file));
+		assertEquals(1, cache.getStats().getMissCount());
+
+		// the same content under another path is the same figure
+		assertSame(triangle, cache.load(Files.copy(file, dir.resolve("copy.json"))));
+
+		Files.copy(Path.of("square_tri.json"), file, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+		Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10000));
+		FigureNode square = cache.load(file);
+		assertNotSame(triangle, square);
+		assertEquals(5, square.getPointsDatabase().getPoints().size());
+		assertEquals(2, cache.getStats().getMissCount());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	void evict_leastRecentlyUsed(@TempDir Path dir) throws IOException
+	{
+		Path pizza = copy("pizza.json", dir);
+		Path snake = copy("tri_snake.json", dir);
+		Path square = copy("square_tri.json", dir);
+		FigureCache cache = new FigureCache(2, Long.MAX_VALUE);
+
+		cache.load(pizza);
+		cache.load(snake);
+		cache.load(pizza);
+		cache.load(square);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getStats().getEvictionCount());
+
+		// pizza was used more recently than the snake, so it stayed
+		cache.load(pizza);
+		assertEquals(1, cache.getStats().getEvictionCount());
+		cache.load(snake);
+		assertEquals(2, cache.getStats().getEvictionCount());
+		assertEquals(4, cache.getStats().getMissCount());
+	}
+
+	@Test
+	void evict_byBytes(@TempDir Path dir) throws IOException
+	{
+		Path pizza = copy("pizza.json", dir);
+		Path snake = copy("tri_snake.json", dir);
+		FigureCache unbounded = new FigureCache(10, Long.MAX_VALUE);
+		long pizzaBytes = FigureCache.estimateBytes(unbounded.load(pizza));
+
+		FigureCache cache = new FigureCache(10, pizzaBytes);
+		cache.load(pizza);
+		assertEquals(pizzaBytes, cache.estimatedBytes());
+
+		// the snake does not fit alongside pizza
+		cache.load(snake);
+		assertTrue(cache.estimatedBytes() <= pizzaBytes);
+		assertTrue(cache.size() <= 1);
+
+		FigureCache tiny = new FigureCache(10, 1);
+		assertNotNull(tiny.load(pizza));
+		assertEquals(0, tiny.size());
+	}
+
+	@Test
+	void load_returnsFrozenFigure(@TempDir Path dir) throws IOException
+	{
+		FigureNode figure = new FigureCache(10, Long.MAX_VALUE).load(copy("square_tri.json", dir));
+		PointNode a = figure.getPointsDatabase().getPoint("A");
+
+		assertTrue(figure.isFrozen());
+		assertThrows(UnsupportedOperationException.class, () -> figure.getPointsDatabase().put(new PointNode("Z", 9, 9)));
+		assertThrows(UnsupportedOperationException.class, () -> figure.getPointsDatabase().getPoints().clear());
+		assertThrows(UnsupportedOperationException.class, () -> figure.getSegments().addUndirectedEdge(a, a));
+		assertEquals(1, PolygonFinder.findTriangles(figure.getSegments()).size());
+	}
+
+	@Test
+	void load_missingFile(@TempDir Path dir)
+	{
+		FigureCache cache = new FigureCache(10, Long.MAX_VALUE);
+
+		assertThrows(ParseException.class, () -> cache.load(dir.resolve("missing.json")));
+	}
+}
@@ -5,12 +5,21 @@ import input.builder.DefaultBuilder;
 import input.builder.GeometryBuilder;
 import input.components.ComponentNode;
 import input.components.FigureNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNodeDatabase;
 import input.exception.ParseException;
 import input.visitor.ComponentNodeVisitor;
 import input.visitor.UnparseVisitor;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.AbstractMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,7 +38,7 @@ class JSONParserTest
 
 	static StringBuilder unparse(ComponentNode node) {
 		StringBuilder sb = new StringBuilder();
-		ComponentNodeVisitor unparseVisitor = new UnparseVisitor();
+		ComponentNodeVisitor<Object, Object> unparseVisitor = new UnparseVisitor();
 
 		node.accept(unparseVisitor, new AbstractMap.SimpleEntry<>(sb, 0));
 
@@ -196,5 +205,119 @@ class JSONParserTest
 	{
 		test("tri_with_segment.json");
 	}
-}
 
+	@Test
+	void streaming_matches_string_parse()
+	{
+		String[] files = { "single_triangle.json", "collinear_line_segments.json",
+				"crossing_symmetric_triangle.json", "fully_connected_irregular_polygon.json",
+				"bowtie.json", "bowtie_twist.json", "filled_dart.json", "pizza.json",
+				"single_segment.json", "square_tri.json", "tri_snake.json", "tri_with_segment.json" };
+
+		for (String filename : files)
+		{
+			String figureStr = utilities.io.FileUtilities.readFileFilterComments(filename);
+
+			assertNull(NULL_PARSER.parse(new StringReader(figureStr)));
+			assertEquals(unparse(PARSER.parse(figureStr)).toString(),
+					unparse(PARSER.parse(new StringReader(figureStr))).toString(), filename);
+		}
+	}
+
+	@Test
+	void streaming_segments_before_points()
+	{
+		String figureStr = "{ \"Figure\": { \"Segments\": [ { \"A\": [\"B\"] } ], \"Description\": \"d\","
+				+ " \"Points\": [ { \"name\": \"A\", \"x\": 0, \"y\": 0 }, { \"name\": \"B\", \"x\": 1, \"y\": 1 } ] } }";
+
+		FigureNode figure = (FigureNode) PARSER.parse(new StringReader(figureStr));
+
+		assertEquals(1, figure.getSegments().numUndirectedEdges());
+		assertEquals(unparse(PARSER.parse(figureStr)).toString(), unparse(figure).toString());
+	}
+
+	@Test
+	void streaming_errors()
+	{
+		assertThrows(ParseException.class, () -> PARSER.parse(new StringReader("{}")));
+		assertThrows(ParseException.class, () -> PARSER.parse(new StringReader("{ \"Figure\": { \"Description\": \"d\" } }")));
+		assertThrows(ParseException.class, () -> PARSER.parse(new StringReader("{ \"Figure\": ")));
+	}
+
+	@Test
+	void path_matches_string_parse()
+	{
+		String figureStr = utilities.io.FileUtilities.readFileFilterComments("pizza.json");
+
+		assertNull(NULL_PARSER.parse(Path.of("pizza.json")));
+		assertEquals(unparse(PARSER.parse(figureStr)).toString(),
+				unparse(PARSER.parse(Path.of("pizza.json"))).toString());
+		assertThrows(ParseException.class, () -> PARSER.parse(Path.of("no_such_figure.json")));
+	}
+
+	@Test
+	void inputStream_filters_comments()
+	{
+		String figureStr = "// a comment\n{ \"Figure\": { \"Description\": \"d\", // trailing / comment\n"
+				+ " \"Points\": [ { \"name\": \"A\", \"x\": 0, \"y\": 0 } ], \"Segments\": [] } }//";
+
+		FigureNode figure = (FigureNode) PARSER.parse(new ByteArrayInputStream(figureStr.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals("d", figure.getDescription());
+		assertEquals(1, figure.getPointsDatabase().getPoints().size());
+	}
+
+	@Test
+	void parseAll_figures_array()
+	{
+		String[] files = { "single_triangle.json", "pizza.json", "tri_snake.json" };
+
+		// bundle the sample figures into one "Figures" document
+		org.json.JSONArray figures = new org.json.JSONArray();
+		for (String filename : files)
+		{
+			String figureStr = utilities.io.FileUtilities.readFileFilterComments(filename);
+			figures.put(new org.json.JSONObject(figureStr).getJSONObject(JSON_Constants.JSON_FIGURE));
+		}
+		String document = new org.json.JSONObject().put(JSON_Constants.JSON_FIGURE_S, figures).toString();
+
+		JSONParser parser = new JSONParser(GeometryBuilder::new);
+		List<FigureNode> parsed = parser.parseAll(document);
+
+		assertEquals(files.length, parsed.size());
+		for (int i = 0; i < files.length; i++)
+		{
+			String figureStr = utilities.io.FileUtilities.readFileFilterComments(files[i]);
+			assertEquals(unparse(PARSER.parse(figureStr)).toString(), unparse(parsed.get(i)).toString(), files[i]);
+		}
+
+		assertEquals(1, PARSER.parseAll(utilities.io.FileUtilities.readFileFilterComments("pizza.json")).size());
+		assertThrows(ParseException.class, () -> PARSER.parseAll("{ \"Figures\": [ {} ] }"));
+	}
+
+	@Test
+	void parseAll_singleBuilder_buildsOnCallingThread()
+	{
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		GeometryBuilder builder = new GeometryBuilder()
+		{
+			@Override
+			public FigureNode buildFigureNode(String description, PointNodeDatabase points, SegmentNodeDatabase segments)
+			{
+				threads.add(Thread.currentThread());
+				return super.buildFigureNode(description, points, segments);
+			}
+		};
+
+		org.json.JSONArray figures = new org.json.JSONArray();
+		for (int i = 0; i < 8; i++)
+		{
+			String figureStr = utilities.io.FileUtilities.readFileFilterComments("pizza.json");
+			figures.put(new org.json.JSONObject(figureStr).getJSONObject(JSON_Constants.JSON_FIGURE));
+		}
+		String document = new org.json.JSONObject().put(JSON_Constants.JSON_FIGURE_S, figures).toString();
+
+		assertEquals(8, new JSONParser(builder).parseAll(document).size());
+		assertEquals(Set.of(Thread.currentThread()), threads);
+	}
+}
@@ -0,0 +1,177 @@
+package input.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import geometry.PolygonFinder;
+import input.FigureFixtures;
+import input.builder.ConcurrentGeometryBuilder;
+import input.builder.DefaultBuilder;
+import input.builder.GeometryBuilder;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNode;
+import input.exception.ParseException;
+
+class JSONPatchParserTest
+{
+	private static final JSONPatchParser PATCHER = new JSONPatchParser(new GeometryBuilder());
+
+	private static FigureNode triangle(DefaultBuilder builder)
+	{
+		return FigureFixtures.parse("single_triangle.json", builder);
+	}
+
+	private static Set<SegmentNode> segments(FigureNode figure)
+	{
+		return new HashSet<>(figure.getSegments().asUniqueSegmentList());
+	}
+
+	@Test
+	void apply_addsPointsAndSegments()
+	{
+		FigureNode figure = triangle(new GeometryBuilder());
+
+		JSONPatchParser.Changes changes = PATCHER.apply(figure, "{ \"Patch\" : {"
+				+ " \"Points\" : [ { \"name\" : \"D\", \"x\" : 0, \"y\" : 1 } ],"
+				+ " \"Segments\" : [ { \"D\" : [ \"A\", \"B\" ] }, { \"A\" : [ \"B\" ] } ] } }");
+
+		PointNode a = figure.getPointsDatabase().getPoint("A");
+		PointNode b = figure.getPointsDatabase().getPoint("B");
+		PointNode d = figure.getPointsDatabase().getPoint("D");
+
+		assertEquals(List.of(d), changes.getAddedPoints());
+		// AB was already there
+		assertEquals(List.of(new SegmentNode(d, a), new SegmentNode(d, b)), changes.getAddedSegments());
+		assertTrue(changes.getRemovedPoints().isEmpty());
+		assertTrue(changes.getRemovedSegments().isEmpty());
+
+		assertEquals(4, figure.getPointsDatabase().getPoints().size());
+		assertEquals(5, figure.getSegments().numUndirectedEdges());
+		assertEquals(2, PolygonFinder.findTriangles(figure.getSegments()).size());
+	}
+
+	@Test
+	void apply_removesPointsWithTheirSegments()
+	{
+		FigureNode figure = triangle(new GeometryBuilder());
+		PointNode a = figure.getPointsDatabase().getPoint("A");
+		PointNode b = figure.getPointsDatabase().getPoint("B");
+		PointNode c = figure.getPointsDatabase().getPoint("C");
+		assertEquals(1, PolygonFinder.findTriangles(figure.getSegments()).size());
+
+		JSONPatchParser.Changes changes = PATCHER.apply(figure, "{ \"Patch\" : {"
+				+ " \"RemoveSegments\" : [ { \"B\" : [ \"C\" ] } ],"
+				+ " \"RemovePoints\" : [ \"A\" ] } }");
+
+		assertEquals(List.of(a), changes.getRemovedPoints());
+		assertEquals(Set.of(new SegmentNode(b, c), new SegmentNode(a, b), new SegmentNode(a, c)),
+				new HashSet<>(changes.getRemovedSegments()));
+
+		assertNull(figure.getPointsDatabase().getPoint("A"));
+		assertFalse(figure.getPointsDatabase().contains(0, 0));
+		assertEquals(2, figure.getPointsDatabase().getPoints().size());
+		assertEquals(0, figure.getSegments().numUndirectedEdges());
+		assertTrue(figure.getSegments().entrySet().isEmpty());
+		assertTrue(PolygonFinder.findTriangles(figure.getSegments()).isEmpty());
+		assertTrue(figure.getPointsDatabase().getPointsInRange(-1, -1, 0.5, 0.5).isEmpty());
+	}
+
+	@Test
+	void apply_replacesPoint()
+	{
+		FigureNode figure = triangle(new GeometryBuilder(PointNodeDatabase.NamePolicy.REJECT));
+
+		JSONPatchParser.Changes changes = PATCHER.apply(figure, "{ \"Patch\" : {"
+				+ " \"RemovePoints\" : [ \"C\" ],"
+				+ " \"Points\" : [ { \"name\" : \"C\", \"x\" : 2, \"y\" : 0 } ],"
+				+ " \"Segments\" : [ { \"C\" : [ \"A\", \"B\" ] } ] } }");
+
+		PointNode c = figure.getPointsDatabase().getPoint("C");
+		assertEquals(2.0, c.getX());
+		assertEquals(1, changes.getRemovedPoints().size());
+		assertEquals(List.of(c), changes.getAddedPoints());
+		assertEquals(2, changes.getRemovedSegments().size());
+		assertEquals(2, changes.getAddedSegments().size());
+		assertEquals(3, figure.getSegments().numUndirectedEdges());
+	}
+
+	@Test
+	void apply_existingCoordinatesStandForTheStoredPoint()
+	{
+		FigureNode figure = triangle(new GeometryBuilder());
+		PointNode c = figure.getPointsDatabase().getPoint("C");
+
+		JSONPatchParser.Changes changes = PATCHER.apply(figure, "{ \"Patch\" : {"
+				+ " \"Points\" : [ { \"name\" : \"E\", \"x\" : 1, \"y\" : 0 }, { \"name\" : \"F\", \"x\" : 3, \"y\" : 3 } ],"
+				+ " \"Segments\" : [ { \"F\" : [ \"E\" ] } ] } }");
+
+		PointNode f = figure.getPointsDatabase().getPoint("F");
+		assertEquals(List.of(f), changes.getAddedPoints());
+		assertEquals(List.of(new SegmentNode(f, c)), changes.getAddedSegments());
+		assertSame(c, figure.getSegments().getNeighbors(f).iterator().next());
+	}
+
+	@Test
+	void apply_invalidPatchChangesNothing()
+	{
+		FigureNode figure = triangle(new GeometryBuilder(PointNodeDatabase.NamePolicy.REJECT));
+		Set<SegmentNode> before = segments(figure);
+
+		// unknown point
+		assertThrows(ParseException.class, () -> PATCHER.apply(figure, "{ \"Patch\" : {"
+				+ " \"RemoveSegments\" : [ { \"A\" : [ \"B\" ] } ],"
+				+ " \"Segments\" : [ { \"A\" : [ \"Z\" ] } ] } }"));
+		// point removed by the same patch
+		assertThrows(ParseException.class, () -> PATCHER.apply(figure, "{ \"Patch\" : {"
+				+ " \"RemovePoints\" : [ \"B\" ],"
+				+ " \"Segments\" : [ { \"A\" : [ \"B\" ] } ] } }"));
+		// name taken under REJECT
+		assertThrows(ParseException.class, () -> PATCHER.apply(figure, "{ \"Patch\" : {"
+				+ " \"RemovePoints\" : [ \"C\" ],"
+				+ " \"Points\" : [ { \"name\" : \"A\", \"x\" : 5, \"y\" : 5 } ] } }"));
+		assertThrows(ParseException.class, () -> PATCHER.apply(figure, "{ \"Points\" : [] }"));
+
+		assertEquals(before, segments(figure));
+		assertEquals(3, figure.getPointsDatabase().getPoints().size());
+	}
+
+	@Test
+	void apply_emptyPatch()
+	{
+		FigureNode figure = triangle(new GeometryBuilder());
+		assertTrue(PATCHER.apply(figure, "{ \"Patch\" : { } }").isEmpty());
+		assertEquals(3, figure.getSegments().numUndirectedEdges());
+	}
+
+	@Test
+	void apply_frozenFigure()
+	{
+		FigureNode figure = triangle(new GeometryBuilder()).freeze();
+		assertThrows(UnsupportedOperationException.class, () -> PATCHER.apply(figure, "{ \"Patch\" : { } }"));
+	}
+
+	@Test
+	void apply_concurrentFigure()
+	{
+		FigureNode figure = triangle(new ConcurrentGeometryBuilder());
+
+		JSONPatchParser.Changes changes = new JSONPatchParser(new ConcurrentGeometryBuilder()).apply(figure, "{ \"Patch\" : {"
+				+ " \"RemovePoints\" : [ \"B\" ],"
+				+ " \"Points\" : [ { \"name\" : \"D\", \"x\" : 0, \"y\" : 1 } ],"
+				+ " \"Segments\" : [ { \"D\" : [ \"A\", \"C\" ] } ] } }");
+
+		assertEquals(2, changes.getRemovedSegments().size());
+		assertEquals(2, changes.getAddedSegments().size());
+		assertEquals(3, figure.getSegments().numUndirectedEdges());
+		assertArrayEquals(new String[] { "A", "C", "D" },
+				figure.getPointsDatabase().getPoints().stream().map(PointNode::getName).toArray());
+		assertNull(figure.getPointsDatabase().getPoint(1, 1));
+	}
+}
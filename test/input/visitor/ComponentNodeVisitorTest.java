@@ -0,0 +1,66 @@
+package input.visitor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import input.FigureFixtures;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNode;
+import input.components.segment.SegmentNodeDatabase;
+
+class ComponentNodeVisitorTest {
+	/**
+	 * Counts the points and segment endpoints of a figure, scaled by a weight,
+	 * without any casts.
+	 */
+	private static class CountVisitor implements ComponentNodeVisitor<Integer, Integer> {
+		@Override
+		public Integer visitFigureNode(FigureNode node, Integer weight) {
+			return node.getPointsDatabase().accept(this, weight) + node.getSegments().accept(this, weight);
+		}
+
+		@Override
+		public Integer visitSegmentDatabaseNode(SegmentNodeDatabase node, Integer weight) {
+			return 2 * node.numUndirectedEdges() * weight;
+		}
+
+		@Override
+		public Integer visitSegmentNode(SegmentNode node, Integer weight) {
+			return 2 * weight;
+		}
+
+		@Override
+		public Integer visitPointNode(PointNode node, Integer weight) {
+			return weight;
+		}
+
+		@Override
+		public Integer visitPointNodeDatabase(PointNodeDatabase node, Integer weight) {
+			int count = 0;
+			for (PointNode p : node.getPoints()) count += p.accept(this, weight);
+			return count;
+		}
+	}
+
+	@Test
+	void typedVisitor()
+	{
+		FigureNode node = FigureFixtures.parse("single_triangle.json");
+
+		int count = node.accept(new CountVisitor(), 10);
+
+		assertEquals((3 + 6) * 10, count);
+	}
+
+	@Test
+	void untypedVisitor()
+	{
+		ComponentNodeVisitor<Object, Object> visitor = new ToJSONvisitor();
+		Object json = new PointNode("A", 0.0, 1.0).accept(visitor, null);
+
+		assertTrue(json instanceof org.json.JSONObject);
+	}
+}
@@ -0,0 +1,90 @@
+package input.visitor;
+
+import static input.FigureFixtures.parse;
+import static input.FigureFixtures.parseText;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNodeDatabase;
+
+class JSONWriterVisitorTest {
+	private static final String[] FILES = { "single_triangle.json", "collinear_line_segments.json",
+			"crossing_symmetric_triangle.json", "fully_connected_irregular_polygon.json",
+			"bowtie.json", "bowtie_twist.json", "filled_dart.json", "pizza.json",
+			"single_segment.json", "square_tri.json", "tri_snake.json", "tri_with_segment.json" };
+
+	private static String write(FigureNode node, boolean pretty)
+	{
+		StringWriter out = new StringWriter();
+		node.accept(new JSONWriterVisitor(out, pretty), null);
+		return out.toString();
+	}
+
+	@Test
+	void visitFigureNode_matchesToJSON()
+	{
+		for (String filename : FILES)
+		{
+			FigureNode node = parse(filename);
+			JSONObject expected = (JSONObject) node.accept(new ToJSONvisitor(), null);
+
+			assertTrue(expected.similar(new JSONObject(write(node, false))), filename);
+			assertTrue(expected.similar(new JSONObject(write(node, true))), filename);
+		}
+	}
+
+	@Test
+	void visitFigureNode_reparses()
+	{
+		FigureNode node = parse("pizza.json");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		node.accept(new JSONWriterVisitor(bytes, true), null);
+		FigureNode reparsed = parseText(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+
+		assertEquals(node.getPointsDatabase().getPoints(), reparsed.getPointsDatabase().getPoints());
+		assertEquals(node.getSegments().numUndirectedEdges(), reparsed.getSegments().numUndirectedEdges());
+	}
+
+	@Test
+	void visitPointNodeDatabase_escapesAndNumbers()
+	{
+		PointNodeDatabase pdb = new PointNodeDatabase();
+		pdb.put(new PointNode("A \"quoted\"\n", 0.0, -1.0));
+		pdb.put(new PointNode(0.867, 1e20));
+
+		StringWriter out = new StringWriter();
+		pdb.accept(new JSONWriterVisitor(out, false), null);
+
+		JSONArray expected = (JSONArray) new ToJSONvisitor().visitPointNodeDatabase(pdb, null);
+		assertTrue(expected.similar(new JSONArray(out.toString())));
+		assertEquals("{\"Figure\":{\"Description\":\"\",\"Points\":[],\"Segments\":[]}}",
+				write(new FigureNode("", new PointNodeDatabase(), new SegmentNodeDatabase()), false));
+	}
+
+	@Test
+	void visitPointNode_keepsNegativeZero()
+	{
+		PointNodeDatabase pdb = new PointNodeDatabase();
+		pdb.put(new PointNode("Z", -0.0, 2.0));
+
+		StringWriter out = new StringWriter();
+		pdb.accept(new JSONWriterVisitor(out, false), null);
+
+		JSONArray expected = (JSONArray) new ToJSONvisitor().visitPointNodeDatabase(pdb, null);
+		assertEquals(expected.toString(), out.toString());
+		assertTrue(out.toString().contains("-0"));
+		assertEquals(Double.doubleToRawLongBits(-0.0),
+				Double.doubleToRawLongBits(new JSONArray(out.toString()).getJSONObject(0).getDouble("x")));
+	}
+}
@@ -0,0 +1,90 @@
+package input.visitor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNodeDatabase;
+
+class ParallelTraversalTest {
+	/**
+	 * A side by side grid, large enough to be split into several chunks
+	 */
+	private static FigureNode grid(int side)
+	{
+		PointNode[] points = new PointNode[side * side];
+		PointNodeDatabase pdb = new PointNodeDatabase();
+		for (int i = 0; i < points.length; i++)
+		{
+			points[i] = new PointNode("P" + i, i % side, i / side);
+			pdb.put(points[i]);
+		}
+
+		SegmentNodeDatabase sdb = new SegmentNodeDatabase();
+		for (int i = 0; i < points.length; i++)
+		{
+			if (i % side < side - 1) sdb.addUndirectedEdge(points[i], points[i + 1]);
+			if (i / side < side - 1) sdb.addUndirectedEdge(points[i], points[i + side]);
+		}
+
+		return new FigureNode("grid", pdb, sdb);
+	}
+
+	@Test
+	void toJSON_parallel_matches_sequential()
+	{
+		FigureNode node = grid(100);
+
+		JSONObject sequential = (JSONObject) node.accept(new ToJSONvisitor(), null);
+		JSONObject parallel = (JSONObject) node.accept(new ToJSONvisitor(true), null);
+
+		assertEquals(sequential.toString(), parallel.toString());
+	}
+
+	@Test
+	void visitPoints_keeps_order()
+	{
+		FigureNode node = grid(100);
+
+		ComponentNodeVisitor<List<String>, Void> names = new ComponentNodeVisitor<List<String>, Void>() {
+			public List<String> visitFigureNode(FigureNode n, Void o) { return null; }
+			public List<String> visitSegmentDatabaseNode(SegmentNodeDatabase n, Void o) { return null; }
+			public List<String> visitSegmentNode(input.components.segment.SegmentNode n, Void o) { return null; }
+			public List<String> visitPointNode(PointNode n, Void o) { return List.of(n.getName()); }
+			public List<String> visitPointNodeDatabase(PointNodeDatabase n, Void o) { return null; }
+		};
+
+		List<String> actual = ParallelTraversal.visitPoints(node.getPointsDatabase(), names, null,
+				ArrayList::new, (list, more) -> { list.addAll(more); return list; });
+
+		List<String> expected = new ArrayList<>();
+		for (PointNode p : node.getPointsDatabase().getPoints()) expected.add(p.getName());
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	void visitAdjacencyLists_and_segments()
+	{
+		FigureNode node = grid(100);
+		SegmentNodeDatabase sdb = node.getSegments();
+
+		int entries = ParallelTraversal.visitAdjacencyLists(sdb, (p, neighbors) -> neighbors.size(), () -> 0, Integer::sum);
+		assertEquals(2 * sdb.numUndirectedEdges(), entries);
+
+		ComponentNodeVisitor<Integer, Void> counter = new ComponentNodeVisitor<Integer, Void>() {
+			public Integer visitFigureNode(FigureNode n, Void o) { return 0; }
+			public Integer visitSegmentDatabaseNode(SegmentNodeDatabase n, Void o) { return 0; }
+			public Integer visitSegmentNode(input.components.segment.SegmentNode n, Void o) { return 1; }
+			public Integer visitPointNode(PointNode n, Void o) { return 0; }
+			public Integer visitPointNodeDatabase(PointNodeDatabase n, Void o) { return 0; }
+		};
+		assertEquals(sdb.numUndirectedEdges(), ParallelTraversal.visitSegments(sdb, counter, null, () -> 0, Integer::sum));
+	}
+}
@@ -2,11 +2,13 @@ package input.visitor;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.StringWriter;
 import java.util.AbstractMap;
 
 import org.junit.jupiter.api.Test;
 import input.components.point.*;
 import input.components.segment.*;
+import input.FigureFixtures;
 import input.components.FigureNode;
 
 public class UnparseVisitorTest {
@@ -89,4 +91,32 @@ public class UnparseVisitorTest {
 		// verify by eye via console output
 		System.out.println(visitor.visitFigureNode(node, o));
 	}
+
+	@Test
+	void test_context_matches_entry()
+	{
+		FigureNode node = FigureFixtures.parse("pizza.json");
+		UnparseVisitor visitor = new UnparseVisitor();
+
+		StringBuilder sb = new StringBuilder();
+		visitor.visitFigureNode(node, new AbstractMap.SimpleEntry<StringBuilder, Integer>(sb, 2));
+
+		StringWriter out = new StringWriter();
+		UnparseContext context = new UnparseContext(out, 2);
+		assertSame(out, visitor.visitFigureNode(node, context));
+
+		assertEquals(sb.toString(), out.toString());
+		assertEquals(2, context.getLevel());
+	}
+
+	@Test
+	void test_context_rejects_negative_level()
+	{
+		assertThrows(IllegalArgumentException.class, () -> new UnparseContext(new StringBuilder(), -1));
+
+		UnparseContext context = new UnparseContext(new StringBuilder(), 1);
+		context.outdent();
+		assertThrows(IllegalArgumentException.class, context::outdent);
+		assertEquals(0, context.getLevel());
+	}
 }
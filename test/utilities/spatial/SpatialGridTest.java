@@ -0,0 +1,176 @@
+package utilities.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SpatialGridTest {
+	/**
+	 * An axis-aligned box; a point when min and max agree
+	 */
+	private static class Box
+	{
+		final double minX, minY, maxX, maxY;
+
+		Box(double minX, double minY, double maxX, double maxY)
+		{
+			this.minX = minX; this.minY = minY; this.maxX = maxX; this.maxY = maxY;
+		}
+
+		boolean intersects(double x1, double y1, double x2, double y2)
+		{
+			return maxX >= x1 && minX <= x2 && maxY >= y1 && minY <= y2;
+		}
+
+		double distance(double x, double y)
+		{
+			double dx = Math.max(0, Math.max(minX - x, x - maxX));
+			double dy = Math.max(0, Math.max(minY - y, y - maxY));
+			return Math.hypot(dx, dy);
+		}
+	}
+
+	private static List<Box> randomBoxes(Random random, int n, double range, double size)
+	{
+		List<Box> boxes = new ArrayList<>();
+		for (int i = 0; i < n; i++)
+		{
+			double x = random.nextDouble() * range - range / 2, y = random.nextDouble() * range - range / 2;
+			boxes.add(new Box(x, y, x + random.nextDouble() * size, y + random.nextDouble() * size));
+		}
+		return boxes;
+	}
+
+	private static SpatialGrid<Box> grid(List<Box> boxes, double cellSize)
+	{
+		SpatialGrid<Box> grid = new SpatialGrid<>(cellSize);
+		for (Box b : boxes) grid.insert(b, b.minX, b.minY, b.maxX, b.maxY);
+		return grid;
+	}
+
+	@Test
+	void search_matchesBruteForce()
+	{
+		Random random = new Random(17);
+		List<Box> boxes = randomBoxes(random, 500, 100, 8);
+		SpatialGrid<Box> grid = grid(boxes, 3);
+
+		for (int q = 0; q < 200; q++)
+		{
+			double x = random.nextDouble() * 140 - 70, y = random.nextDouble() * 140 - 70;
+			// mostly small windows, some covering everything
+			double w = q % 10 == 0 ? 500 : random.nextDouble() * 20, h = q % 10 == 0 ? 500 : random.nextDouble() * 20;
+
+			List<Box> found = grid.search(x, y, x + w, y + h);
+			HashSet<Box> expected = new HashSet<>();
+			for (Box b : boxes) if (b.intersects(x, y, x + w, y + h)) expected.add(b);
+
+			assertEquals(expected.size(), found.size(), "query " + q);
+			assertEquals(expected, new HashSet<>(found), "query " + q);
+		}
+	}
+
+	@Test
+	void nearest_matchesBruteForce()
+	{
+		Random random = new Random(223);
+		List<Box> boxes = randomBoxes(random, 400, 100, 2);
+		SpatialGrid<Box> grid = grid(boxes, SpatialGrid.cellSize(100, 100, 400));
+
+		for (int q = 0; q < 200; q++)
+		{
+			// some queries start far outside the occupied cells
+			double x = random.nextDouble() * 400 - 200, y = random.nextDouble() * 400 - 200;
+			int k = 1 + random.nextInt(8);
+
+			List<Box> nearest = grid.nearest(x, y, k, Box::distance);
+			List<Box> expected = new ArrayList<>(boxes);
+			expected.sort(Comparator.comparingDouble(b -> b.distance(x, y)));
+
+			assertEquals(k, nearest.size());
+			for (int i = 0; i < k; i++)
+			{
+				assertEquals(expected.get(i).distance(x, y), nearest.get(i).distance(x, y), 1e-12, "query " + q);
+			}
+		}
+	}
+
+	@Test
+	void insert_remove()
+	{
+		SpatialGrid<String> grid = new SpatialGrid<>(1.0);
+		assertTrue(grid.nearest(0, 0, 3, (s, x, y) -> 0).isEmpty());
+
+		grid.insert("a", 0.5, 0.5);
+		grid.insert("long", -5, 0, 5, 0.2);
+		grid.insert("b", 3.5, 3.5);
+
+		assertEquals(3, grid.size());
+		assertEquals(List.of("long"), grid.search(-4, -1, -3, 1));
+		assertEquals(new HashSet<>(List.of("a", "long")), new HashSet<>(grid.search(0, 0, 1, 1)));
+
+		assertTrue(grid.remove("long", -5, 0, 5, 0.2));
+		assertFalse(grid.remove("long", -5, 0, 5, 0.2));
+		assertEquals(2, grid.size());
+		assertTrue(grid.search(-4, -1, -3, 1).isEmpty());
+		assertEquals(List.of("a", "b"), grid.nearest(0, 0, 5, (s, x, y) -> s.equals("a") ? 0.7 : 4.9));
+	}
+
+	@Test
+	void cellSize()
+	{
+		assertEquals(10.0, SpatialGrid.cellSize(100, 100, 100), 1e-12);
+		assertEquals(2.0, SpatialGrid.cellSize(0, 20, 10), 1e-12);
+		assertEquals(1.0, SpatialGrid.cellSize(0, 0, 1), 1e-12);
+		assertEquals(1.0, SpatialGrid.cellSize(0, 0, 0), 1e-12);
+		assertThrows(IllegalArgumentException.class, () -> new SpatialGrid<String>(0));
+	}
+
+	@Test
+	void farItems_growTheCells()
+	{
+		SpatialGrid<Box> grid = new SpatialGrid<>(1.0);
+		Random random = new Random(5);
+		List<Box> boxes = randomBoxes(random, 200, 1e7, 10);
+		boxes.add(new Box(-1e9, -1e9, 1e9, 1e9));
+
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			for (Box b : boxes) grid.insert(b, b.minX, b.minY, b.maxX, b.maxY);
+
+			for (int q = 0; q < 50; q++)
+			{
+				double x = random.nextDouble() * 2e7 - 1e7, y = random.nextDouble() * 2e7 - 1e7;
+				List<Box> expected = new ArrayList<>(boxes);
+				expected.sort(Comparator.comparingDouble(b -> b.distance(x, y)));
+
+				List<Box> nearest = grid.nearest(x, y, 3, Box::distance);
+				for (int i = 0; i < 3; i++)
+				{
+					assertEquals(expected.get(i).distance(x, y), nearest.get(i).distance(x, y), 1e-9, "query " + q);
+				}
+				assertEquals(boxes.size(), grid.search(-2e9, -2e9, 2e9, 2e9).size());
+			}
+		});
+		assertTrue(grid.getCellSize() > 1.0);
+	}
+
+	@Test
+	void nearest_scansOccupiedCellsWhenRingsAreEmpty()
+	{
+		// made for a million items, so two items a million cells apart keep the small cells
+		SpatialGrid<String> grid = new SpatialGrid<>(1.0, 1000000);
+		grid.insert("a", 0, 0);
+		grid.insert("b", 1e6, 0);
+
+		assertEquals(1.0, grid.getCellSize());
+		assertEquals(List.of("a", "b"), assertTimeoutPreemptively(Duration.ofSeconds(10),
+				() -> grid.nearest(0, 0, 2, (s, x, y) -> s.equals("a") ? 0 : 1e6)));
+	}
+}